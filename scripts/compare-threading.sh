@@ -0,0 +1,91 @@
+#!/usr/bin/env bash
+#
+# Compares throughput and p99 latency of the application with platform-thread request handling
+# (LMS_VIRTUAL_THREADS=false) and virtual-thread request handling (LMS_VIRTUAL_THREADS=true).
+#
+# Requires a packaged application (mvn package), wrk (https://github.com/wg/wrk) and curl. Runs against the
+# "dev" profile by default, i.e. the MySQL started by docker-compose; pick the database with SPRING_PROFILES_ACTIVE
+# and SPRING_DATASOURCE_* as usual. The two modes only differ once requests block on the database, so compare
+# them with enough connections to exceed Tomcat's 200 worker threads.
+#
+#   ./scripts/compare-threading.sh
+#   CONNECTIONS=2000 DURATION=120s ./scripts/compare-threading.sh
+#
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+CONNECTIONS=${CONNECTIONS:-1000}
+THREADS=${THREADS:-8}
+DURATION=${DURATION:-60s}
+WARMUP=${WARMUP:-20s}
+ISBNS=${ISBNS:-1000}
+PORT=${PORT:-8080}
+export SPRING_PROFILES_ACTIVE=${SPRING_PROFILES_ACTIVE:-dev}
+export ISBNS
+
+BASE_URL="http://localhost:${PORT}"
+JAR=$(ls target/library-management-system-*.jar | grep -v plain | head -n 1)
+RESULTS=target/threading-comparison.md
+APP_PID=
+
+stop_app() {
+    if [[ -n "${APP_PID}" ]]; then
+        kill "${APP_PID}" 2>/dev/null || true
+        wait "${APP_PID}" 2>/dev/null || true
+        APP_PID=
+    fi
+}
+trap stop_app EXIT
+
+start_app() {
+    LMS_VIRTUAL_THREADS=$1 java -jar "${JAR}" --server.port="${PORT}" --logging.level.root=WARN \
+        > "target/threading-comparison-$1.log" 2>&1 &
+    APP_PID=$!
+    for _ in $(seq 1 120); do
+        if curl -fs "${BASE_URL}/actuator/health" > /dev/null; then
+            return
+        fi
+        sleep 1
+    done
+    echo "Application did not start, see target/threading-comparison-$1.log" >&2
+    exit 1
+}
+
+seed() {
+    local batch
+    for ((start = 0; start < ISBNS; start += 500)); do
+        batch=$(seq "${start}" $((start + 499 < ISBNS - 1 ? start + 499 : ISBNS - 1)) |
+            awk '{ printf "%s{\"isbn\":\"lt-%d\",\"title\":\"Load test title %d\",\"author\":\"Author %d\"}", (NR > 1 ? "," : ""), $1, $1, $1 }')
+        curl -fs -H 'Content-Type: application/json' -d "[${batch}]" "${BASE_URL}/api/books/batch" > /dev/null
+    done
+}
+
+run_mode() {
+    local virtual=$1 output
+    start_app "${virtual}"
+    if [[ "${virtual}" == "false" ]]; then
+        seed
+    fi
+    wrk -t"${THREADS}" -c"${CONNECTIONS}" -d"${WARMUP}" -s scripts/mixed-reads.lua "${BASE_URL}" > /dev/null
+    output=$(wrk -t"${THREADS}" -c"${CONNECTIONS}" -d"${DURATION}" --latency -s scripts/mixed-reads.lua "${BASE_URL}")
+    stop_app
+
+    local throughput p99 errors
+    throughput=$(awk '/Requests\/sec/ { print $2 }' <<< "${output}")
+    p99=$(awk '$1 == "99%" { print $2 }' <<< "${output}")
+    errors=$(awk '/Non-2xx|Socket errors/ { sub(/^ +/, ""); printf "%s; ", $0 }' <<< "${output}")
+    echo "| $([[ "${virtual}" == "true" ]] && echo virtual || echo platform) | ${throughput} | ${p99} | ${errors:-none} |" >> "${RESULTS}"
+}
+
+{
+    echo "Profile ${SPRING_PROFILES_ACTIVE}, ${CONNECTIONS} connections, ${THREADS} wrk threads, ${DURATION}, $(java -version 2>&1 | head -n 1)"
+    echo
+    echo "| Threads | Requests/sec | p99 latency | Errors |"
+    echo "|---------|--------------|-------------|--------|"
+} > "${RESULTS}"
+
+run_mode false
+run_mode true
+
+cat "${RESULTS}"
@@ -0,0 +1,9 @@
+-- wrk script for compare-threading.sh: availability lookups and catalog pages over the seeded "lt-" ISBNs.
+local isbns = tonumber(os.getenv("ISBNS") or "1000")
+
+request = function()
+    if math.random() < 0.8 then
+        return wrk.format("GET", "/api/books/availability/lt-" .. math.random(0, isbns - 1))
+    end
+    return wrk.format("GET", "/api/books/page?limit=20")
+end
@@ -0,0 +1,81 @@
+-- Partitions the loan_event ledger by month on MySQL 8.
+--
+-- The application creates loan_event (ddl-auto: update); run this once afterwards, as a user allowed to alter the
+-- table and create events:
+--
+--   mysql -u root -p library_dev < scripts/mysql/loan-event-partitions.sql
+--
+-- Every row lands in the partition of the month it occurred in, so the history of the current months stays small
+-- and old months can be archived or dropped as a whole instead of with DELETE. Histories of a book or borrower still
+-- use the (book_id, occurred_at, id) and (borrower_id, occurred_at, id) indexes, which exist in every partition.
+
+-- A partitioned table needs the partitioning column in its primary key. Ids come from loan_event_seq, which the
+-- application moves past max(id) at startup, so they stay unique without a key on id alone; a table created before
+-- the sequence keeps AUTO_INCREMENT on id, which is harmless since the application always supplies the id.
+ALTER TABLE loan_event DROP PRIMARY KEY, ADD PRIMARY KEY (id, occurred_at);
+
+-- Everything before the current month goes to p_history; p_future catches rows past the last monthly partition.
+SET @ddl = CONCAT('ALTER TABLE loan_event PARTITION BY RANGE COLUMNS (occurred_at) (',
+                  'PARTITION p_history VALUES LESS THAN (''', DATE_FORMAT(CURRENT_DATE, '%Y-%m-01'), '''), ',
+                  'PARTITION p_future VALUES LESS THAN (MAXVALUE))');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+DELIMITER //
+
+-- Splits p<yyyymm> off p_future. Does nothing when the partition exists, so it is safe to call repeatedly; months
+-- must be added in order, since only p_future is split.
+DROP PROCEDURE IF EXISTS loan_event_add_partition //
+CREATE PROCEDURE loan_event_add_partition(IN month_start DATE)
+BEGIN
+    DECLARE p_name VARCHAR(16) DEFAULT CONCAT('p', DATE_FORMAT(month_start, '%Y%m'));
+
+    IF DAYOFMONTH(month_start) <> 1 THEN
+        SIGNAL SQLSTATE '45000' SET MESSAGE_TEXT = 'month_start must be the first day of a month';
+    END IF;
+
+    IF NOT EXISTS (SELECT 1
+                   FROM information_schema.partitions
+                   WHERE table_schema = DATABASE()
+                     AND table_name = 'loan_event'
+                     AND partition_name = p_name) THEN
+        SET @ddl = CONCAT('ALTER TABLE loan_event REORGANIZE PARTITION p_future INTO (',
+                          'PARTITION ', p_name, ' VALUES LESS THAN (''', month_start + INTERVAL 1 MONTH, '''), ',
+                          'PARTITION p_future VALUES LESS THAN (MAXVALUE))');
+        PREPARE stmt FROM @ddl;
+        EXECUTE stmt;
+        DEALLOCATE PREPARE stmt;
+    END IF;
+END //
+
+DELIMITER ;
+
+CALL loan_event_add_partition(DATE_FORMAT(CURRENT_DATE, '%Y-%m-01'));
+CALL loan_event_add_partition(DATE_FORMAT(CURRENT_DATE, '%Y-%m-01') + INTERVAL 1 MONTH);
+
+-- Keeps two months ahead of the clock, so p_future stays empty and splitting it is instant. Needs the event
+-- scheduler (event_scheduler=ON, the default since MySQL 8.0).
+DELIMITER //
+
+CREATE EVENT IF NOT EXISTS loan_event_partitions
+    ON SCHEDULE EVERY 1 DAY STARTS CURRENT_TIMESTAMP
+    DO
+    BEGIN
+        CALL loan_event_add_partition(DATE_FORMAT(CURRENT_DATE, '%Y-%m-01') + INTERVAL 1 MONTH);
+        CALL loan_event_add_partition(DATE_FORMAT(CURRENT_DATE, '%Y-%m-01') + INTERVAL 2 MONTH);
+    END //
+
+DELIMITER ;
+
+-- The ledger is append-only: the application user needs no more than
+--
+--   GRANT SELECT, INSERT ON library_dev.loan_event TO 'lms'@'%';
+--
+-- Retention: move a month out to an archive table of the same shape (instant, no row copying), or drop it.
+--
+--   CREATE TABLE loan_event_archive_202401 LIKE loan_event;
+--   ALTER TABLE loan_event_archive_202401 REMOVE PARTITIONING;
+--   ALTER TABLE loan_event EXCHANGE PARTITION p202401 WITH TABLE loan_event_archive_202401;
+--
+--   ALTER TABLE loan_event DROP PARTITION p202401;
@@ -0,0 +1,79 @@
+package com.example.lms.benchmark;
+
+import com.example.lms.dto.BookDTO;
+import com.example.lms.dto.BorrowerDTO;
+import com.example.lms.entity.Book;
+import com.example.lms.entity.Borrower;
+import com.example.lms.mapper.BookMapper;
+import com.example.lms.mapper.BorrowerMapper;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-object mapping cost of the reflective {@link ModelMapper} (the previous implementation)
+ * against the hand-written {@link BookMapper} and {@link BorrowerMapper}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MappingBenchmark {
+
+    private final ModelMapper modelMapper = new ModelMapper();
+    private final BookMapper bookMapper = new BookMapper();
+    private final BorrowerMapper borrowerMapper = new BorrowerMapper();
+
+    private Book book;
+    private BookDTO bookDTO;
+    private Borrower borrower;
+
+    @Setup
+    public void setUp() {
+        borrower = new Borrower(7L, "raymond.tang@example.com", "Raymond Tang");
+        book = new Book(1L, "978-1-60309-502-1", "The Clean Coder", "Robert C. Martin", borrower);
+        bookDTO = new BookDTO(null, "978-1-60309-502-1", "The Clean Coder", "Robert C. Martin", null);
+    }
+
+    @Benchmark
+    public BookDTO modelMapperBookToDto() {
+        return modelMapper.map(book, BookDTO.class);
+    }
+
+    @Benchmark
+    public BookDTO bookMapperBookToDto() {
+        return bookMapper.toDto(book);
+    }
+
+    @Benchmark
+    public Book modelMapperDtoToBook() {
+        return modelMapper.map(bookDTO, Book.class);
+    }
+
+    @Benchmark
+    public Book bookMapperDtoToBook() {
+        return bookMapper.toEntity(bookDTO);
+    }
+
+    @Benchmark
+    public BorrowerDTO modelMapperBorrowerToDto() {
+        return modelMapper.map(borrower, BorrowerDTO.class);
+    }
+
+    @Benchmark
+    public BorrowerDTO borrowerMapperBorrowerToDto() {
+        return borrowerMapper.toDto(borrower);
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.lms.benchmark;
+
+import com.example.lms.LibraryManagementSystemApplication;
+import com.example.lms.dto.BookBatchResultDTO;
+import com.example.lms.dto.BookDTO;
+import com.example.lms.dto.BorrowerDTO;
+import com.example.lms.dto.CursorPage;
+import com.example.lms.service.BookService;
+import com.example.lms.service.BorrowerService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * End-to-end service-layer benchmarks against the in-memory H2 database of the {@code test} profile.
+ * Every {@code catalogSize} runs in its own fork with a freshly seeded catalog of that many copies,
+ * spread over 1000 ISBNs, so the cost of catalog-size dependent paths shows up across the parameter values.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ServiceBenchmark {
+
+    private static final int SEED_BATCH_SIZE = 1_000;
+    private static final int DISTINCT_ISBNS = 1_000;
+
+    @Param({"1000", "10000", "50000"})
+    public int catalogSize;
+
+    private ConfigurableApplicationContext context;
+    private BookService bookService;
+    private BorrowerService borrowerService;
+    private long borrowerId;
+    private long[] bookIds;
+    private final AtomicLong isbnSequence = new AtomicLong();
+    private final AtomicLong loanSequence = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = new SpringApplicationBuilder(LibraryManagementSystemApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties("spring.jpa.show-sql=false", "logging.level.root=WARN")
+                .run();
+        bookService = context.getBean(BookService.class);
+        borrowerService = context.getBean(BorrowerService.class);
+        borrowerId = borrowerService.registerBorrower(new BorrowerDTO(null, "benchmark@example.com", "Benchmark")).getId();
+        seedCatalog();
+    }
+
+    private void seedCatalog() {
+        bookIds = new long[catalogSize];
+        List<BookDTO> batch = new ArrayList<>(SEED_BATCH_SIZE);
+        int seeded = 0;
+        for (int i = 0; i < catalogSize; i++) {
+            int isbn = i % DISTINCT_ISBNS;
+            batch.add(new BookDTO(null, "seed-" + isbn, "Title " + isbn, "Author " + isbn % 100, null));
+            if (batch.size() == SEED_BATCH_SIZE || i == catalogSize - 1) {
+                for (BookBatchResultDTO result : bookService.registerBooks(batch)) {
+                    bookIds[seeded++] = result.getBook().getId();
+                }
+                batch.clear();
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    public BookDTO registerBookWithNewIsbn() {
+        long isbn = isbnSequence.incrementAndGet();
+        return bookService.registerBook(new BookDTO(null, "new-" + isbn, "New title " + isbn, "New author", null));
+    }
+
+    /**
+     * Registers another copy of an ISBN that already has {@code catalogSize / 1000} copies.
+     */
+    @Benchmark
+    public BookDTO registerBookWithExistingIsbn() {
+        return bookService.registerBook(new BookDTO(null, "seed-0", "Title 0", "Author 0", null));
+    }
+
+    @Benchmark
+    public List<BookDTO> getAllBooks() {
+        return bookService.getAllBooks();
+    }
+
+    @Benchmark
+    public CursorPage<BookDTO> getFirstBooksPage() {
+        return bookService.getBooks(null, 20);
+    }
+
+    @Benchmark
+    public BookDTO getBookById() {
+        return bookService.getBookById(nextBookId());
+    }
+
+    @Benchmark
+    public long borrowAndReturnBook() {
+        long bookId = nextBookId();
+        borrowerService.borrowBook(borrowerId, bookId);
+        borrowerService.returnBook(borrowerId, bookId);
+        return bookId;
+    }
+
+    private long nextBookId() {
+        return bookIds[(int) (loanSequence.getAndIncrement() % bookIds.length)];
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.lms.loadtest;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop generator: requests are scheduled at a fixed rate whatever the server does, and at most
+ * {@code concurrency} are in flight. When the server falls behind, new requests wait for a free slot, and that
+ * wait counts toward their response time. A closed-loop client would slow down with the server and hide it.
+ */
+final class LoadGenerator {
+
+    private final List<RequestTemplate> templates;
+    private final int[] cumulativeWeights;
+    private final double rate;
+    private final Duration warmup;
+    private final Duration duration;
+    private final Duration timeout;
+    private final int concurrency;
+    private final HttpClient client;
+
+    LoadGenerator(List<RequestTemplate> templates, double rate, Duration warmup, Duration duration, Duration timeout, int concurrency) {
+        if (rate <= 0 || concurrency < 1 || duration.isNegative() || duration.isZero() || warmup.isNegative()) {
+            throw new IllegalArgumentException("rate and concurrency must be positive, duration positive and warmup not negative");
+        }
+        this.templates = List.copyOf(templates);
+        this.cumulativeWeights = new int[templates.size()];
+        int total = 0;
+        for (int i = 0; i < templates.size(); i++) {
+            total += templates.get(i).weight();
+            cumulativeWeights[i] = total;
+        }
+        this.rate = rate;
+        this.warmup = warmup;
+        this.duration = duration;
+        this.timeout = timeout;
+        this.concurrency = concurrency;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(timeout)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+
+    LoadReport run() throws InterruptedException {
+        LoadReport report = new LoadReport();
+        Semaphore inFlight = new Semaphore(concurrency);
+        double periodNanos = 1e9 / rate;
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+
+        for (long sequence = 0; ; sequence++) {
+            long intended = start + (long) (sequence * periodNanos);
+            if (intended - end >= 0) {
+                break;
+            }
+            parkUntil(intended);
+            inFlight.acquire();
+
+            RequestTemplate template = next();
+            boolean measured = intended - measureFrom >= 0;
+            if (measured) {
+                report.scheduled();
+            }
+            long sent = System.nanoTime();
+            client.sendAsync(template.toHttpRequest(timeout), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        long done = System.nanoTime();
+                        inFlight.release();
+                        if (measured) {
+                            report.record(template, response == null ? -1 : response.statusCode(), error, done - intended, done - sent);
+                        }
+                    });
+        }
+
+        // Let the requests still in flight finish; they were scheduled inside the window.
+        inFlight.tryAcquire(concurrency, timeout.toNanos() + TimeUnit.SECONDS.toNanos(1), TimeUnit.NANOSECONDS);
+        report.finish(System.nanoTime() - measureFrom);
+        return report;
+    }
+
+    private RequestTemplate next() {
+        int pick = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (pick < cumulativeWeights[i]) {
+                return templates.get(i);
+            }
+        }
+        throw new IllegalStateException("Weights are exhausted");
+    }
+
+    private static void parkUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.lms.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Results of the measured part of a run, recorded concurrently by the HTTP client's completion callbacks.
+ * <p>
+ * Two latencies are kept per request. <em>Response time</em> is measured from the moment the schedule says the
+ * request should have been sent, so time spent waiting for a free connection or behind a stalled generator is
+ * included; this is the coordinated-omission corrected figure to plan capacity with. <em>Service time</em> is
+ * measured from the moment it was actually sent, which is what a closed-loop tool would report.
+ */
+final class LoadReport {
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final Histogram responseTimes = new ConcurrentHistogram(3);
+    private final Histogram serviceTimes = new ConcurrentHistogram(3);
+    private final Map<String, Map<String, LongAdder>> outcomesByRequest = new ConcurrentHashMap<>();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder scheduled = new LongAdder();
+    private volatile long measuredNanos;
+
+    void scheduled() {
+        scheduled.increment();
+    }
+
+    /**
+     * @param status the HTTP status, or {@code -1} when no response was received
+     */
+    void record(RequestTemplate template, int status, Throwable error, long responseNanos, long serviceNanos) {
+        responseTimes.recordValue(responseNanos);
+        serviceTimes.recordValue(serviceNanos);
+        String outcome = error != null ? error.getClass().getSimpleName() : Integer.toString(status);
+        if (error != null || status >= 400) {
+            failures.increment();
+        }
+        outcomesByRequest.computeIfAbsent(template.name(), name -> new ConcurrentHashMap<>())
+                .computeIfAbsent(outcome, key -> new LongAdder())
+                .increment();
+    }
+
+    void finish(long measuredNanos) {
+        this.measuredNanos = measuredNanos;
+    }
+
+    long completed() {
+        return responseTimes.getTotalCount();
+    }
+
+    double throughput() {
+        return measuredNanos == 0 ? 0 : completed() * 1e9 / measuredNanos;
+    }
+
+    /**
+     * Writes the summary as Markdown, and the full response-time distribution next to it as {@code .hgrm}
+     * (milliseconds), which HdrHistogram's plotter reads.
+     */
+    void write(Path markdown, Map<String, String> settings) throws IOException {
+        Path parent = markdown.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Files.writeString(markdown, toMarkdown(settings));
+        Path distribution = markdown.resolveSibling(markdown.getFileName().toString().replaceFirst("\\.md$", "") + ".hgrm");
+        try (PrintStream out = new PrintStream(Files.newOutputStream(distribution))) {
+            responseTimes.outputPercentileDistribution(out, NANOS_PER_MILLI);
+        }
+    }
+
+    String toMarkdown(Map<String, String> settings) {
+        StringWriter text = new StringWriter();
+        PrintWriter out = new PrintWriter(text);
+        out.println("# Load test report");
+        out.println();
+        out.println("| Setting | Value |");
+        out.println("|---|---|");
+        settings.forEach((setting, value) -> out.printf("| %s | %s |%n", setting, value));
+        out.println();
+
+        out.println("## Throughput");
+        out.println();
+        out.printf("Scheduled %d requests in the measured window, %d completed, %d failed (status >= 400 or no response).%n",
+                scheduled.sum(), completed(), failures.sum());
+        out.printf("Achieved %.1f requests/s over %s.%n", throughput(), Duration.ofNanos(measuredNanos));
+        out.println();
+
+        out.println("## Latency (ms)");
+        out.println();
+        out.print("| |");
+        for (double percentile : PERCENTILES) {
+            out.printf(" p%s |", percentile % 1 == 0 ? Long.toString((long) percentile) : Double.toString(percentile));
+        }
+        out.println(" max |");
+        out.println("|---|" + "---|".repeat(PERCENTILES.length + 1));
+        latencyRow(out, "Response time (corrected for coordinated omission)", responseTimes);
+        latencyRow(out, "Service time (uncorrected)", serviceTimes);
+        out.println();
+
+        out.println("## Requests");
+        out.println();
+        out.println("| Request | Outcomes |");
+        out.println("|---|---|");
+        new TreeMap<>(outcomesByRequest).forEach((request, outcomes) -> {
+            StringBuilder counts = new StringBuilder();
+            new TreeMap<>(outcomes).forEach((outcome, count) ->
+                    counts.append(counts.isEmpty() ? "" : ", ").append(outcome).append(": ").append(count.sum()));
+            out.printf("| %s | %s |%n", request, counts);
+        });
+        out.flush();
+        return text.toString();
+    }
+
+    private static void latencyRow(PrintWriter out, String label, Histogram histogram) {
+        out.print("| " + label + " |");
+        for (double percentile : PERCENTILES) {
+            out.printf(" %.2f |", histogram.getValueAtPercentile(percentile) / NANOS_PER_MILLI);
+        }
+        out.printf(" %.2f |%n", histogram.getMaxValue() / NANOS_PER_MILLI);
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.lms.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replays the request shapes of one or more workload files against a running instance and writes a latency and
+ * throughput report. See {@link WorkloadReader} for the supported files.
+ * <pre>
+ * mvn -Ploadtest test-compile exec:exec -Dloadtest.args="--workload postman_collection.json --rate 200 --duration 2m"
+ * </pre>
+ */
+public final class LoadTest {
+
+    private static final String USAGE = """
+            Options:
+              --workload FILE      .json (Postman), .rest/.http (REST Client) or .jsonl; repeatable, required
+              --target URL         base URL of the instance under test (default http://localhost:8080)
+              --rate N             requests per second, scheduled open-loop (default 100)
+              --duration D         measured duration, e.g. 60s or 5m (default 60s)
+              --warmup D           unmeasured lead-in at the same rate (default 10s)
+              --concurrency N      maximum requests in flight (default 256)
+              --timeout D          per-request timeout (default 10s)
+              --var NAME=VALUE     sets or overrides a {{NAME}} workload variable; repeatable
+              --out FILE           Markdown report; the .hgrm distribution is written next to it
+                                   (default target/load-test-report.md)
+            """;
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<Path> workloads = new ArrayList<>();
+        Map<String, String> variables = new HashMap<>();
+        String target = "http://localhost:8080";
+        double rate = 100;
+        Duration duration = Duration.ofSeconds(60);
+        Duration warmup = Duration.ofSeconds(10);
+        int concurrency = 256;
+        Duration timeout = Duration.ofSeconds(10);
+        Path out = Path.of("target", "load-test-report.md");
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String option = args[i];
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing value for " + option);
+                }
+                String value = args[++i];
+                switch (option) {
+                    case "--workload" -> workloads.add(Path.of(value));
+                    case "--target" -> target = value.replaceAll("/+$", "");
+                    case "--rate" -> rate = Double.parseDouble(value);
+                    case "--duration" -> duration = DurationStyle.detectAndParse(value);
+                    case "--warmup" -> warmup = DurationStyle.detectAndParse(value);
+                    case "--concurrency" -> concurrency = Integer.parseInt(value);
+                    case "--timeout" -> timeout = DurationStyle.detectAndParse(value);
+                    case "--out" -> out = Path.of(value);
+                    case "--var" -> {
+                        int equals = value.indexOf('=');
+                        if (equals < 1) {
+                            throw new IllegalArgumentException("Expected --var NAME=VALUE but got " + value);
+                        }
+                        variables.put(value.substring(0, equals), value.substring(equals + 1));
+                    }
+                    default -> throw new IllegalArgumentException("Unknown option " + option);
+                }
+            }
+            if (workloads.isEmpty()) {
+                throw new IllegalArgumentException("At least one --workload is required");
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(USAGE);
+            System.exit(2);
+            return;
+        }
+
+        WorkloadReader reader = new WorkloadReader();
+        List<RequestTemplate> templates = new ArrayList<>();
+        for (Path workload : workloads) {
+            templates.addAll(reader.read(workload, target, variables));
+        }
+
+        Map<String, String> settings = new LinkedHashMap<>();
+        settings.put("Target", target);
+        settings.put("Workloads", workloads.toString());
+        settings.put("Request shapes", Integer.toString(templates.size()));
+        settings.put("Rate (requests/s)", Double.toString(rate));
+        settings.put("Warmup", warmup.toString());
+        settings.put("Duration", duration.toString());
+        settings.put("Concurrency", Integer.toString(concurrency));
+        settings.put("Timeout", timeout.toString());
+
+        System.out.printf("Sending %s requests/s to %s for %s after a %s warmup...%n", rate, target, duration, warmup);
+        LoadReport report = new LoadGenerator(templates, rate, warmup, duration, timeout, concurrency).run();
+        report.write(out, settings);
+        System.out.print(report.toMarkdown(settings));
+        System.out.println();
+        System.out.println("Report written to " + out.toAbsolutePath());
+    }
+}
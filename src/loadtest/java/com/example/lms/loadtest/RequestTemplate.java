@@ -0,0 +1,93 @@
+package com.example.lms.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * One request shape of a workload. File and command-line variables are already substituted; the dynamic
+ * {@code {{$guid}}} and {@code {{$randomInt MIN MAX}}} placeholders are expanded again for every request sent.
+ * Variables may appear inside them, as in {@code {{$randomInt 1 {{book_max}}}}}: only innermost braces match.
+ */
+record RequestTemplate(String name, String method, String url, Map<String, String> headers, String body, int weight) {
+
+    private static final Pattern VARIABLE = Pattern.compile("\\{\\{\\s*([^{}]+?)\\s*}}");
+
+    // Headers the HTTP client sets itself and refuses to take from the caller.
+    private static final Set<String> RESTRICTED_HEADERS = Set.of("connection", "content-length", "host");
+
+    RequestTemplate {
+        if (weight < 1) {
+            throw new IllegalArgumentException("Weight of " + name + " must be at least 1");
+        }
+        headers = Map.copyOf(headers);
+    }
+
+    HttpRequest toHttpRequest(Duration timeout) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(expandDynamic(url)))
+                .timeout(timeout)
+                .method(method, body == null
+                        ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(expandDynamic(body)));
+        headers.forEach((header, value) -> {
+            if (!RESTRICTED_HEADERS.contains(header.toLowerCase(Locale.ROOT))) {
+                builder.header(header, expandDynamic(value));
+            }
+        });
+        return builder.build();
+    }
+
+    /**
+     * Replaces {@code {{name}}} with its value. Dynamic placeholders are kept for {@link #toHttpRequest};
+     * any other unknown variable is an error, since the request could not be sent as intended.
+     */
+    static String expand(String text, Map<String, String> variables) {
+        if (text == null) {
+            return null;
+        }
+        Matcher matcher = VARIABLE.matcher(text);
+        StringBuilder expanded = new StringBuilder();
+        while (matcher.find()) {
+            String variable = matcher.group(1);
+            String value;
+            if (variable.startsWith("$")) {
+                value = matcher.group();
+            } else if (variables.containsKey(variable)) {
+                value = expand(variables.get(variable), variables);
+            } else {
+                throw new IllegalArgumentException("Undefined variable {{" + variable + "}}; pass it with --var " + variable + "=...");
+            }
+            matcher.appendReplacement(expanded, Matcher.quoteReplacement(value));
+        }
+        matcher.appendTail(expanded);
+        return expanded.toString();
+    }
+
+    private static String expandDynamic(String text) {
+        if (text.indexOf("{{") < 0) {
+            return text;
+        }
+        Matcher matcher = VARIABLE.matcher(text);
+        StringBuilder expanded = new StringBuilder();
+        while (matcher.find()) {
+            String[] parts = matcher.group(1).split("\\s+");
+            String value = switch (parts[0]) {
+                case "$guid" -> UUID.randomUUID().toString();
+                // MAX is inclusive, so {{$randomInt 1 {{book_max}}}} can pick the last book.
+                case "$randomInt" -> Long.toString(ThreadLocalRandom.current().nextLong(
+                        Long.parseLong(parts[1]), Long.parseLong(parts[2]) + 1));
+                default -> throw new IllegalArgumentException("Unsupported dynamic variable {{" + matcher.group(1) + "}}");
+            };
+            matcher.appendReplacement(expanded, Matcher.quoteReplacement(value));
+        }
+        matcher.appendTail(expanded);
+        return expanded.toString();
+    }
+}
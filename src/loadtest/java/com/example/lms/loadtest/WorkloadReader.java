@@ -0,0 +1,193 @@
+package com.example.lms.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reads request shapes from the formats the repository already uses, chosen by file extension:
+ * <ul>
+ *     <li>{@code .json}: a Postman v2.1 collection such as {@code postman_collection.json}; folders are flattened.</li>
+ *     <li>{@code .rest} / {@code .http}: the REST Client format of {@code test.requests.rest}, requests separated
+ *     by {@code ###} and file variables declared as {@code @name = value}.</li>
+ *     <li>{@code .jsonl}: one request per line, {@code {"method", "path", "headers", "body", "weight", "name"}};
+ *     {@code path} is relative to the target and {@code body} may be a JSON value or a string.</li>
+ * </ul>
+ * {@code {{base_url}}} always resolves to the target; other variables come from the file, overridden by {@code --var}.
+ */
+final class WorkloadReader {
+
+    static final String BASE_URL = "base_url";
+
+    private static final Pattern FILE_VARIABLE = Pattern.compile("^@([\\w.-]+)\\s*=\\s*(.*)$");
+    private static final Pattern REQUEST_LINE = Pattern.compile("^(GET|POST|PUT|PATCH|DELETE|HEAD|OPTIONS)\\s+(\\S+)(\\s+HTTP/\\S+)?$");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    List<RequestTemplate> read(Path path, String target, Map<String, String> overrides) throws IOException {
+        String fileName = path.getFileName().toString().toLowerCase(Locale.ROOT);
+        List<RequestTemplate> templates;
+        if (fileName.endsWith(".jsonl")) {
+            templates = readJsonLines(path, variables(Map.of(), target, overrides));
+        } else if (fileName.endsWith(".json")) {
+            templates = readPostmanCollection(path, target, overrides);
+        } else if (fileName.endsWith(".rest") || fileName.endsWith(".http")) {
+            templates = readRestClient(path, target, overrides);
+        } else {
+            throw new IllegalArgumentException("Unsupported workload file " + path + "; expected .json, .rest, .http or .jsonl");
+        }
+        if (templates.isEmpty()) {
+            throw new IllegalArgumentException("No requests found in " + path);
+        }
+        return templates;
+    }
+
+    private static Map<String, String> variables(Map<String, String> fileVariables, String target, Map<String, String> overrides) {
+        Map<String, String> variables = new HashMap<>(fileVariables);
+        variables.putAll(overrides);
+        variables.put(BASE_URL, target);
+        return variables;
+    }
+
+    private List<RequestTemplate> readJsonLines(Path path, Map<String, String> variables) throws IOException {
+        List<RequestTemplate> templates = new ArrayList<>();
+        List<String> lines = Files.readAllLines(path);
+        for (int number = 1; number <= lines.size(); number++) {
+            String line = lines.get(number - 1).trim();
+            if (line.isEmpty() || line.startsWith("//")) {
+                continue;
+            }
+            JsonNode request = objectMapper.readTree(line);
+            String method = request.path("method").asText("GET").toUpperCase(Locale.ROOT);
+            String requestPath = request.path("path").asText(null);
+            if (requestPath == null) {
+                throw new IllegalArgumentException(path + ":" + number + ": \"path\" is required");
+            }
+            Map<String, String> headers = new LinkedHashMap<>();
+            request.path("headers").fields().forEachRemaining(header -> headers.put(header.getKey(), header.getValue().asText()));
+            JsonNode body = request.get("body");
+            String bodyText = body == null || body.isNull() ? null : body.isTextual() ? body.asText() : objectMapper.writeValueAsString(body);
+            if (bodyText != null) {
+                headers.putIfAbsent("Content-Type", "application/json");
+            }
+            templates.add(template(request.path("name").asText(method + " " + requestPath), method, "{{" + BASE_URL + "}}" + requestPath,
+                    headers, bodyText, request.path("weight").asInt(1), variables));
+        }
+        return templates;
+    }
+
+    private List<RequestTemplate> readPostmanCollection(Path path, String target, Map<String, String> overrides) throws IOException {
+        JsonNode collection = objectMapper.readTree(path.toFile());
+        Map<String, String> fileVariables = new HashMap<>();
+        collection.path("variable").forEach(variable -> fileVariables.put(variable.path("key").asText(), variable.path("value").asText()));
+        Map<String, String> variables = variables(fileVariables, target, overrides);
+
+        List<RequestTemplate> templates = new ArrayList<>();
+        collectPostmanItems(collection.path("item"), variables, templates);
+        return templates;
+    }
+
+    private void collectPostmanItems(JsonNode items, Map<String, String> variables, List<RequestTemplate> templates) {
+        for (JsonNode item : items) {
+            if (item.has("item")) {
+                collectPostmanItems(item.get("item"), variables, templates);
+                continue;
+            }
+            JsonNode request = item.path("request");
+            JsonNode url = request.path("url");
+            Map<String, String> headers = new LinkedHashMap<>();
+            request.path("header").forEach(header -> {
+                if (!header.path("disabled").asBoolean(false)) {
+                    headers.put(header.path("key").asText(), header.path("value").asText());
+                }
+            });
+            JsonNode body = request.path("body");
+            String bodyText = "raw".equals(body.path("mode").asText()) ? body.path("raw").asText(null) : null;
+            templates.add(template(item.path("name").asText(), request.path("method").asText("GET"),
+                    url.isTextual() ? url.asText() : url.path("raw").asText(), headers, bodyText, 1, variables));
+        }
+    }
+
+    private List<RequestTemplate> readRestClient(Path path, String target, Map<String, String> overrides) throws IOException {
+        List<String> lines = Files.readAllLines(path);
+        Map<String, String> fileVariables = new HashMap<>();
+        for (String line : lines) {
+            Matcher matcher = FILE_VARIABLE.matcher(line.trim());
+            if (matcher.matches()) {
+                fileVariables.put(matcher.group(1), matcher.group(2).trim());
+            }
+        }
+        Map<String, String> variables = variables(fileVariables, target, overrides);
+
+        List<RequestTemplate> templates = new ArrayList<>();
+        List<String> block = new ArrayList<>();
+        String blockName = null;
+        for (String line : lines) {
+            if (line.startsWith("###")) {
+                addRestClientRequest(blockName, block, variables, templates);
+                block.clear();
+                blockName = line.substring(3).trim();
+            } else {
+                block.add(line);
+            }
+        }
+        addRestClientRequest(blockName, block, variables, templates);
+        return templates;
+    }
+
+    private static void addRestClientRequest(String name, List<String> block, Map<String, String> variables,
+                                             List<RequestTemplate> templates) {
+        int index = 0;
+        Matcher requestLine = null;
+        for (; index < block.size(); index++) {
+            String line = block.get(index).trim();
+            if (line.isEmpty() || line.startsWith("#") || line.startsWith("//") || FILE_VARIABLE.matcher(line).matches()) {
+                continue;
+            }
+            requestLine = REQUEST_LINE.matcher(line);
+            if (!requestLine.matches()) {
+                throw new IllegalArgumentException("Expected a request line but found: " + line);
+            }
+            index++;
+            break;
+        }
+        if (requestLine == null) {
+            return;
+        }
+
+        Map<String, String> headers = new LinkedHashMap<>();
+        for (; index < block.size() && !block.get(index).isBlank(); index++) {
+            String header = block.get(index);
+            int colon = header.indexOf(':');
+            if (colon < 0) {
+                throw new IllegalArgumentException("Malformed header: " + header);
+            }
+            headers.put(header.substring(0, colon).trim(), header.substring(colon + 1).trim());
+        }
+        String body = String.join("\n", block.subList(Math.min(index, block.size()), block.size())).strip();
+
+        String method = requestLine.group(1);
+        String url = requestLine.group(2);
+        templates.add(template(name == null || name.isEmpty() ? method + " " + url : name, method, url, headers,
+                body.isEmpty() ? null : body, 1, variables));
+    }
+
+    private static RequestTemplate template(String name, String method, String url, Map<String, String> headers,
+                                            String body, int weight, Map<String, String> variables) {
+        Map<String, String> expandedHeaders = new LinkedHashMap<>();
+        headers.forEach((header, value) -> expandedHeaders.put(header, RequestTemplate.expand(value, variables)));
+        return new RequestTemplate(name, method.toUpperCase(Locale.ROOT), RequestTemplate.expand(url, variables),
+                expandedHeaders, RequestTemplate.expand(body, variables), weight);
+    }
+}
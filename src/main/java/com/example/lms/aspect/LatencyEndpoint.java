@@ -0,0 +1,31 @@
+package com.example.lms.aspect;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.Map;
+
+/**
+ * {@code /actuator/latency}: call count and p50/p95/p99/max in milliseconds for every instrumented method.
+ * {@code DELETE} starts a new measurement window.
+ */
+@Endpoint(id = "latency")
+public class LatencyEndpoint {
+
+    private final MethodLatencyInterceptor methodLatencyInterceptor;
+
+    public LatencyEndpoint(MethodLatencyInterceptor methodLatencyInterceptor) {
+        this.methodLatencyInterceptor = methodLatencyInterceptor;
+    }
+
+    @ReadOperation
+    public Map<String, MethodLatencySnapshot> latencies() {
+        return methodLatencyInterceptor.snapshots();
+    }
+
+    @DeleteOperation
+    public void reset() {
+        methodLatencyInterceptor.reset();
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.lms.aspect;
+
+import org.springframework.aop.Advisor;
+import org.springframework.aop.aspectj.AspectJExpressionPointcutAdvisor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Instruments the service and repository layers with {@link MethodLatencyInterceptor}. A plain advisor is used
+ * instead of an {@code @Around} aspect so no join point object is created per call.
+ */
+@Configuration
+@ConditionalOnProperty(name = "lms.latency.enabled", havingValue = "true", matchIfMissing = true)
+public class LatencyInstrumentationConfig {
+
+    // Repository methods are mostly inherited from Spring Data, so match any subtype of our repository interfaces.
+    private static final String POINTCUT = "execution(* com.example.lms.service..*.*(..)) " +
+            "|| execution(* com.example.lms.repository..*+.*(..))";
+
+    @Bean
+    public static MethodLatencyInterceptor methodLatencyInterceptor() {
+        return new MethodLatencyInterceptor();
+    }
+
+    @Bean
+    public static Advisor methodLatencyAdvisor(MethodLatencyInterceptor methodLatencyInterceptor) {
+        AspectJExpressionPointcutAdvisor advisor = new AspectJExpressionPointcutAdvisor();
+        advisor.setExpression(POINTCUT);
+        advisor.setAdvice(methodLatencyInterceptor);
+        // Outermost, so the time includes transaction begin and commit.
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return advisor;
+    }
+
+    @Bean
+    public LatencyEndpoint latencyEndpoint(MethodLatencyInterceptor methodLatencyInterceptor) {
+        return new LatencyEndpoint(methodLatencyInterceptor);
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.lms.aspect;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency histogram of one method. Calls record into a wait-free {@link Recorder}; readers swap out its
+ * interval histogram and fold it into the running total, so recording never blocks or allocates.
+ */
+final class MethodLatency {
+
+    private static final long LOWEST_DISCERNIBLE_NANOS = 1_000;
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.HOURS.toNanos(1);
+    private static final int SIGNIFICANT_DIGITS = 2;
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final Recorder recorder = new Recorder(LOWEST_DISCERNIBLE_NANOS, HIGHEST_TRACKABLE_NANOS, SIGNIFICANT_DIGITS);
+    private final Histogram total = new Histogram(LOWEST_DISCERNIBLE_NANOS, HIGHEST_TRACKABLE_NANOS, SIGNIFICANT_DIGITS);
+    private Histogram interval;
+
+    void record(long nanos) {
+        recorder.recordValue(Math.min(nanos, HIGHEST_TRACKABLE_NANOS));
+    }
+
+    synchronized MethodLatencySnapshot snapshot() {
+        total.add(swapInterval());
+        return new MethodLatencySnapshot(total.getTotalCount(),
+                millis(total.getValueAtPercentile(50)),
+                millis(total.getValueAtPercentile(95)),
+                millis(total.getValueAtPercentile(99)),
+                millis(total.getMaxValue()));
+    }
+
+    synchronized void reset() {
+        swapInterval();
+        total.reset();
+    }
+
+    private Histogram swapInterval() {
+        interval = interval == null ? recorder.getIntervalHistogram() : recorder.getIntervalHistogram(interval);
+        return interval;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / NANOS_PER_MILLI;
+    }
+}
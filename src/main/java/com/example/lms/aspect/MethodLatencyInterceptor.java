@@ -0,0 +1,83 @@
+package com.example.lms.aspect;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+
+/**
+ * Times every intercepted call with {@link System#nanoTime()} and records it into the histogram of its
+ * method. After the first call of a method the hot path is two map lookups and a wait-free record: it does
+ * not allocate, lock or log.
+ */
+public class MethodLatencyInterceptor implements MethodInterceptor {
+
+    private final ConcurrentMap<Class<?>, ConcurrentMap<Method, MethodLatency>> latenciesByTarget = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, MethodLatency> latenciesByName = new ConcurrentHashMap<>();
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        long start = System.nanoTime();
+        try {
+            return invocation.proceed();
+        } finally {
+            latencyOf(invocation).record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Snapshot of every method called so far, keyed by {@code Type.method(ParameterTypes)}.
+     */
+    public Map<String, MethodLatencySnapshot> snapshots() {
+        Map<String, MethodLatencySnapshot> snapshots = new TreeMap<>();
+        latenciesByName.forEach((name, latency) -> snapshots.put(name, latency.snapshot()));
+        return snapshots;
+    }
+
+    public void reset() {
+        latenciesByName.values().forEach(MethodLatency::reset);
+    }
+
+    private MethodLatency latencyOf(MethodInvocation invocation) {
+        // Keyed by target class as well as method: inherited repository methods such as save share one Method.
+        Object target = invocation.getThis();
+        Class<?> targetClass = target != null ? target.getClass() : invocation.getMethod().getDeclaringClass();
+        ConcurrentMap<Method, MethodLatency> latencies = latenciesByTarget.get(targetClass);
+        if (latencies == null) {
+            latencies = latenciesByTarget.computeIfAbsent(targetClass, key -> new ConcurrentHashMap<>());
+        }
+        MethodLatency latency = latencies.get(invocation.getMethod());
+        if (latency == null) {
+            latency = latencies.computeIfAbsent(invocation.getMethod(), method ->
+                    latenciesByName.computeIfAbsent(nameOf(target, targetClass, method), name -> new MethodLatency()));
+        }
+        return latency;
+    }
+
+    private static String nameOf(Object target, Class<?> targetClass, Method method) {
+        String parameters = Arrays.stream(method.getParameterTypes())
+                .map(Class::getSimpleName)
+                .collect(Collectors.joining(","));
+        return typeNameOf(target, targetClass) + "." + method.getName() + "(" + parameters + ")";
+    }
+
+    private static String typeNameOf(Object target, Class<?> targetClass) {
+        // Spring Data repositories are JDK proxies; name them after the repository interface.
+        if (target != null && Proxy.isProxyClass(targetClass)) {
+            Class<?>[] interfaces = AopProxyUtils.proxiedUserInterfaces(target);
+            if (interfaces.length > 0) {
+                return interfaces[0].getSimpleName();
+            }
+        }
+        return ClassUtils.getUserClass(targetClass).getSimpleName();
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.lms.aspect;
+
+/**
+ * Latency distribution of one method since startup or the last reset, in milliseconds.
+ */
+public record MethodLatencySnapshot(long count, double p50, double p95, double p99, double max) {
+}
@@ -0,0 +1,20 @@
+package com.example.lms.aspect;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Runs the method again, after a short random pause, when it fails with an optimistic locking conflict.
+ * Each attempt must be a transaction of its own, so the method is expected to be {@code @Transactional}
+ * and called from outside any transaction; inside one, conflicts propagate without a retry.
+ *
+ * @see OptimisticRetryAspect
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface OptimisticRetry {
+}
@@ -0,0 +1,30 @@
+package com.example.lms.cache;
+
+import com.example.lms.util.TransactionUtil;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Evicts single entities from the Hibernate second-level cache after a native update Hibernate does not track,
+ * so one changed row costs one cache entry rather than the whole region.
+ */
+@Component
+public class EntityCacheEvictor {
+
+    private final Cache cache;
+
+    public EntityCacheEvictor(EntityManagerFactory entityManagerFactory) {
+        this.cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    }
+
+    /**
+     * Evicts the entity now and again once the transaction commits: until then other transactions still read the
+     * old row, and may put it back in the cache.
+     */
+    public void evictAfterUpdate(Class<?> entityClass, Object id) {
+        cache.evictEntityData(entityClass, id);
+        TransactionUtil.afterCommit(() -> cache.evictEntityData(entityClass, id));
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.lms.cache;
+
+/**
+ * The title and author every copy of an ISBN must share.
+ */
+public record IsbnMetadata(String title, String author) {
+
+    public boolean matches(String title, String author) {
+        return this.title.equals(title) && this.author.equals(author);
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.lms.cache;
+
+import com.example.lms.repository.BookRepository;
+import com.example.lms.util.TransactionUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Bounded, size-evicting cache from ISBN to its canonical title and author, used to validate new copies
+ * without querying the catalog. Entries are loaded from the first registered copy on a miss and refreshed
+ * whenever a copy is registered. Hit, miss and eviction counts are published as {@code cache.*} metrics
+ * tagged {@code cache=isbnMetadata}.
+ */
+@Component
+public class IsbnMetadataCache {
+
+    public static final String CACHE_NAME = "isbnMetadata";
+
+    private final BookRepository bookRepository;
+    private final Cache<String, IsbnMetadata> cache;
+
+    public IsbnMetadataCache(BookRepository bookRepository, MeterRegistry meterRegistry,
+                             @Value("${lms.cache.isbn-metadata.maximum-size:100000}") long maximumSize) {
+        this.bookRepository = bookRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Returns the canonical metadata of the ISBN, or empty if no copy has been registered yet.
+     * Unknown ISBNs are not cached, so the first registration is always checked against the database.
+     * <p>
+     * The query runs outside the cache rather than in a {@code cache.get(key, loader)} mapping function, which
+     * executes under a map bin lock and would pin the carrier of a virtual thread for the whole JDBC call.
+     */
+    public Optional<IsbnMetadata> get(String isbn) {
+        IsbnMetadata cached = cache.getIfPresent(isbn);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        IsbnMetadata loaded = load(isbn);
+        if (loaded != null) {
+            cache.put(isbn, loaded);
+        }
+        return Optional.ofNullable(loaded);
+    }
+
+    /**
+     * Records the metadata of a newly registered copy. Inside a transaction the entry is only published
+     * after commit, so a rolled-back registration never becomes canonical.
+     */
+    public void put(String isbn, String title, String author) {
+        IsbnMetadata metadata = new IsbnMetadata(title, author);
+        TransactionUtil.afterCommit(() -> cache.put(isbn, metadata));
+    }
+
+    private IsbnMetadata load(String isbn) {
+        return bookRepository.findFirstByIsbn(isbn)
+                .map(book -> new IsbnMetadata(book.getTitle(), book.getAuthor()))
+                .orElse(null);
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.lms.config;
+
+import com.example.lms.entity.CollectionVersion;
+import com.example.lms.repository.CollectionVersionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Creates the counter stripes of every collection before the web server accepts requests, so writers only ever
+ * update existing rows and never race each other to insert one.
+ */
+@Component
+public class CollectionVersionSeeder implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(CollectionVersionSeeder.class);
+    private static final List<String> COLLECTIONS = List.of(CollectionVersion.BOOKS, CollectionVersion.BORROWERS);
+
+    private final CollectionVersionRepository collectionVersionRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public CollectionVersionSeeder(CollectionVersionRepository collectionVersionRepository, TransactionTemplate transactionTemplate) {
+        this.collectionVersionRepository = collectionVersionRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        List<CollectionVersion> stripes = new ArrayList<>();
+        for (String collection : COLLECTIONS) {
+            for (int stripe = 0; stripe < CollectionVersion.STRIPES; stripe++) {
+                stripes.add(new CollectionVersion(CollectionVersion.stripeId(collection, stripe), collection, 0));
+            }
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Set<String> existing = new HashSet<>();
+                collectionVersionRepository.findAllById(stripes.stream().map(CollectionVersion::getId).toList())
+                        .forEach(stripe -> existing.add(stripe.getId()));
+                List<CollectionVersion> missing = stripes.stream()
+                        .filter(stripe -> !existing.contains(stripe.getId()))
+                        .toList();
+                collectionVersionRepository.saveAll(missing);
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Another instance created the stripes at the same time.
+            logger.info("Collection version stripes were created concurrently: {}", e.getMessage());
+        }
+    }
+}
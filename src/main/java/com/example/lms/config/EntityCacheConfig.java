@@ -0,0 +1,81 @@
+package com.example.lms.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Hibernate second-level cache for {@code Book} and {@code Borrower} by id, held in bounded Caffeine caches
+ * that expire entries a fixed time after they are written.
+ * <p>
+ * Both regions are {@code READ_WRITE}: an entity updated through the persistence context is refreshed on commit,
+ * and a bulk JPQL update or delete on a table evicts that table's whole region. Hit and miss counts are published
+ * as {@code cache.gets} tagged {@code cache=book|borrower}.
+ * <p>
+ * The regions live in a cache manager of their own, not the caching provider's JVM-wide default, so contexts sharing
+ * a JVM (tests, benchmark forks) neither read nor clear each other's entries.
+ */
+@Configuration
+public class EntityCacheConfig implements HibernatePropertiesCustomizer, DisposableBean {
+
+    public static final String BOOK_REGION = "book";
+    public static final String BORROWER_REGION = "borrower";
+
+    private final CacheManager cacheManager;
+
+    public EntityCacheConfig(MeterRegistry meterRegistry,
+                             @Value("${lms.cache.entity.book.maximum-size:100000}") long bookMaximumSize,
+                             @Value("${lms.cache.entity.book.time-to-live:10m}") Duration bookTimeToLive,
+                             @Value("${lms.cache.entity.borrower.maximum-size:50000}") long borrowerMaximumSize,
+                             @Value("${lms.cache.entity.borrower.time-to-live:30m}") Duration borrowerTimeToLive) {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        this.cacheManager = provider.getCacheManager(URI.create("urn:lms:entity-cache:" + UUID.randomUUID()),
+                getClass().getClassLoader());
+        JCacheMetrics.monitor(meterRegistry, createRegion(BOOK_REGION, bookMaximumSize, bookTimeToLive));
+        JCacheMetrics.monitor(meterRegistry, createRegion(BORROWER_REGION, borrowerMaximumSize, borrowerTimeToLive));
+    }
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+        hibernateProperties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+        hibernateProperties.put(ConfigSettings.CACHE_MANAGER, cacheManager);
+        // Every cached entity must use one of the regions created above.
+        hibernateProperties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+    }
+
+    /**
+     * Hibernate does not close a cache manager it was handed, so the manager goes with the application context.
+     */
+    @Override
+    public void destroy() {
+        cacheManager.close();
+    }
+
+    private Cache<Object, Object> createRegion(String name, long maximumSize, Duration timeToLive) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maximumSize));
+        configuration.setExpireAfterWrite(OptionalLong.of(timeToLive.toNanos()));
+        // Hibernate caches its own disassembled copy of each entity, so there is nothing to gain from copying again.
+        configuration.setStoreByValue(false);
+        configuration.setStatisticsEnabled(true);
+        return cacheManager.createCache(name, configuration);
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.lms.config;
+
+import com.example.lms.entity.Book;
+import com.example.lms.entity.LoanEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+
+/**
+ * Moves the id sequences past the ids already in their tables before the web server accepts requests. A database
+ * that predates a pooled generator holds IDENTITY ids but a fresh sequence, so the first batch of new rows would
+ * collide with existing ones. Hibernate hands out the allocation size of ids up to the value it reads, so each
+ * sequence has to be at least that far past {@code max(id)}.
+ * <p>
+ * Only MySQL needs this: it has no sequences, so Hibernate emulates each one with a one-row table whose
+ * {@code next_val} it creates at 1. The update only ever raises {@code next_val}, so running it on several instances
+ * at once, or against a sequence already in use, is safe.
+ */
+@Component
+public class IdSequenceCheck implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdSequenceCheck.class);
+
+    /**
+     * Table whose ids each sequence hands out, with the generator's allocation size.
+     */
+    private static final Map<String, Sequence> SEQUENCES = Map.of(
+            "book_seq", new Sequence("book", Book.ID_ALLOCATION_SIZE),
+            "loan_event_seq", new Sequence("loan_event", LoanEvent.ID_ALLOCATION_SIZE));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public IdSequenceCheck(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        if (!"MySQL".equals(database)) {
+            return;
+        }
+        SEQUENCES.forEach((sequence, target) -> {
+            Integer updated = transactionTemplate.execute(status -> jdbcTemplate.update(
+                    "update " + sequence + " set next_val = (select coalesce(max(id), 0) + ? from " + target.table() + ") " +
+                            "where next_val < (select coalesce(max(id), 0) + ? from " + target.table() + ")",
+                    target.allocationSize(), target.allocationSize()));
+            if (updated != null && updated > 0) {
+                logger.info("Moved {} past the existing {} ids", sequence, target.table());
+            }
+        });
+    }
+
+    private record Sequence(String table, int allocationSize) {
+    }
+}
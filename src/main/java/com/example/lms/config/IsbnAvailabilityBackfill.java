@@ -0,0 +1,42 @@
+package com.example.lms.config;
+
+import com.example.lms.repository.IsbnAvailabilityRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Fills {@code isbn_availability} from the existing books the first time the application starts against a
+ * database that predates the counters. Runs before the web server accepts requests, so no registration can
+ * create a row first and make the table look populated.
+ */
+@Component
+public class IsbnAvailabilityBackfill implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(IsbnAvailabilityBackfill.class);
+
+    private final IsbnAvailabilityRepository isbnAvailabilityRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public IsbnAvailabilityBackfill(IsbnAvailabilityRepository isbnAvailabilityRepository, TransactionTemplate transactionTemplate) {
+        this.isbnAvailabilityRepository = isbnAvailabilityRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        try {
+            Integer inserted = transactionTemplate.execute(status ->
+                    isbnAvailabilityRepository.count() == 0 ? isbnAvailabilityRepository.backfill() : 0);
+            if (inserted != null && inserted > 0) {
+                logger.info("Backfilled availability counters for {} ISBNs", inserted);
+            }
+        } catch (DataIntegrityViolationException e) {
+            // Another instance backfilled the table at the same time.
+            logger.info("Availability counters were backfilled concurrently: {}", e.getMessage());
+        }
+    }
+}
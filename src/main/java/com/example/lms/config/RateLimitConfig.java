@@ -0,0 +1,39 @@
+package com.example.lms.config;
+
+import com.example.lms.ratelimit.RateLimitFilter;
+import com.example.lms.ratelimit.TokenBuckets;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Puts {@link RateLimitFilter} in front of the book and borrower endpoints. Registered here rather than as a
+ * component so that web slice tests of the controllers run without it.
+ */
+@Configuration
+@ConditionalOnProperty(name = "lms.rate-limit.enabled", havingValue = "true", matchIfMissing = true)
+public class RateLimitConfig {
+
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilter(
+            @Value("${lms.rate-limit.client.capacity:60}") long clientCapacity,
+            @Value("${lms.rate-limit.client.refill-rate:20}") double clientRefillRate,
+            @Value("${lms.rate-limit.borrower.capacity:10}") long borrowerCapacity,
+            @Value("${lms.rate-limit.borrower.refill-rate:1}") double borrowerRefillRate,
+            @Value("${lms.rate-limit.maximum-buckets:100000}") long maximumBuckets,
+            MeterRegistry meterRegistry) {
+        RateLimitFilter filter = new RateLimitFilter(
+                new TokenBuckets(clientCapacity, clientRefillRate, maximumBuckets),
+                new TokenBuckets(borrowerCapacity, borrowerRefillRate, maximumBuckets),
+                meterRegistry);
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/api/books", "/api/books/*", "/api/borrowers", "/api/borrowers/*");
+        // After the server observation filter, so rejected requests still show up in http.server.requests.
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.lms.config;
+
+import com.example.lms.entity.ReplicaHeartbeat;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how far the read replica lags behind the primary. Every interval it writes the current time to the
+ * {@code replica_heartbeat} row on the primary and reads the row back from the replica; the difference is the lag,
+ * give or take one interval. Until the first successful check, and whenever the replica cannot be read or lags by
+ * more than {@code maxLag}, {@link #isReplicaUsable()} is false and reads go to the primary.
+ */
+public class ReplicaLagMonitor implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+    private static final long UNKNOWN = Long.MAX_VALUE;
+
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final long maxLagMillis;
+    private final Duration interval;
+    private volatile long lagMillis = UNKNOWN;
+    private volatile boolean usable;
+    private ScheduledExecutorService scheduler;
+
+    public ReplicaLagMonitor(JdbcTemplate primary, JdbcTemplate replica, Duration maxLag, Duration interval,
+                             MeterRegistry meterRegistry) {
+        if (!interval.isPositive() || maxLag.compareTo(interval) <= 0) {
+            throw new IllegalArgumentException("Replica lag check interval must be positive and shorter than the maximum lag");
+        }
+        this.primary = primary;
+        this.replica = replica;
+        this.maxLagMillis = maxLag.toMillis();
+        this.interval = interval;
+        Gauge.builder("lms.datasource.replica.lag", this, monitor -> monitor.lagMillis == UNKNOWN ? Double.NaN : monitor.lagMillis / 1000.0)
+                .description("Seconds the read replica lags behind the primary; NaN while it cannot be read")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("lms.datasource.replica.usable", this, monitor -> monitor.usable ? 1 : 0)
+                .description("1 while read-only transactions are routed to the replica, 0 while they fall back to the primary")
+                .register(meterRegistry);
+    }
+
+    public boolean isReplicaUsable() {
+        return usable;
+    }
+
+    void check() {
+        try {
+            long now = System.currentTimeMillis();
+            if (primary.update("update replica_heartbeat set beat_millis = ? where id = ?", now, ReplicaHeartbeat.ID) == 0) {
+                primary.update("insert into replica_heartbeat (id, beat_millis) values (?, ?)", ReplicaHeartbeat.ID, now);
+            }
+        } catch (DataAccessException e) {
+            // Another instance may have inserted the row first; the replica check below still applies.
+            logger.debug("Could not write the replica heartbeat: {}", e.getMessage());
+        }
+
+        long lag;
+        try {
+            Long beat = replica.queryForObject("select beat_millis from replica_heartbeat where id = ?", Long.class, ReplicaHeartbeat.ID);
+            lag = beat == null ? UNKNOWN : Math.max(0, System.currentTimeMillis() - beat);
+        } catch (DataAccessException e) {
+            logger.debug("Could not read the replica heartbeat: {}", e.getMessage());
+            lag = UNKNOWN;
+        }
+        lagMillis = lag;
+
+        boolean nowUsable = lag <= maxLagMillis;
+        if (nowUsable != usable) {
+            if (nowUsable) {
+                logger.info("Read replica lags {} ms; routing read-only transactions to it", lag);
+            } else {
+                logger.warn("Read replica {}; routing read-only transactions to the primary",
+                        lag == UNKNOWN ? "cannot be read" : "lags " + lag + " ms");
+            }
+            usable = nowUsable;
+        }
+    }
+
+    @Override
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("replica-lag-monitor").daemon().factory());
+        scheduler.scheduleWithFixedDelay(this::checkQuietly, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void checkQuietly() {
+        try {
+            check();
+        } catch (RuntimeException e) {
+            // An exception would cancel the schedule; treat it as an unreadable replica and try again next time.
+            logger.warn("Replica lag check failed", e);
+            lagMillis = UNKNOWN;
+            usable = false;
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return scheduler != null;
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.lms.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Runs the {@code @Scheduled} background jobs, such as the overdue scan.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
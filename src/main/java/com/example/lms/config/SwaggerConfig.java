@@ -13,7 +13,7 @@ public class SwaggerConfig {
     public GroupedOpenApi publicApi() {
         return GroupedOpenApi.builder()
                 .group("library-management")
-                .pathsToMatch("/api/books/**", "/api/borrowers/**")
+                .pathsToMatch("/api/books/**", "/api/borrowers/**", "/api/holds/**", "/api/stats/**")
                 .build();
     }
 
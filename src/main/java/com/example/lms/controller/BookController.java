@@ -1,13 +1,29 @@
 package com.example.lms.controller;
 
+import com.example.lms.dto.BookBatchResultDTO;
 import com.example.lms.dto.BookDTO;
+import com.example.lms.dto.BookSearchHitDTO;
+import com.example.lms.dto.CursorPage;
+import com.example.lms.dto.IsbnAvailabilityDTO;
+import com.example.lms.dto.LoanEventDTO;
+import com.example.lms.dto.SearchMatch;
+import com.example.lms.repository.projection.BookSummary;
 import com.example.lms.service.BookService;
+import com.example.lms.util.CursorUtil;
+import com.example.lms.util.ETagUtil;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RestController
@@ -16,14 +32,16 @@ public class BookController {
     private static final Logger logger = LoggerFactory.getLogger(BookController.class);
 
     private final BookService bookService;
+    private final ObjectMapper objectMapper;
 
-    public BookController(BookService bookService) {
+    public BookController(BookService bookService, ObjectMapper objectMapper) {
         this.bookService = bookService;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping
     public ResponseEntity<BookDTO> registerBook(@RequestBody BookDTO bookDTO) {
-        logger.info("Request to create book: {}", bookDTO);
+        logger.info("Request to create book with isbn: {}", bookDTO.getIsbn());
         try {
             BookDTO savedBook = bookService.registerBook(bookDTO);
             return new ResponseEntity<>(savedBook, HttpStatus.CREATED);
@@ -32,17 +50,120 @@ public class BookController {
         }
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<List<BookBatchResultDTO>> registerBooks(@RequestBody List<BookDTO> bookDTOs) {
+        logger.info("Request to create {} books", bookDTOs.size());
+        try {
+            return ResponseEntity.ok(bookService.registerBooks(bookDTOs));
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * List responses carry the catalog version as their ETag, read before the books themselves: a concurrent
+     * write can only make the ETag older than the body, which costs the client one more full response.
+     */
     @GetMapping
-    public ResponseEntity<List<BookDTO>> getAllBooks() {
+    public ResponseEntity<List<BookDTO>> getAllBooks(WebRequest request) {
         logger.info("Request to get all books");
+        String eTag = ETagUtil.of(bookService.getCatalogVersion());
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
         List<BookDTO> books = bookService.getAllBooks();
-        return ResponseEntity.ok(books);
+        return ResponseEntity.ok().eTag(eTag).body(books);
+    }
+
+    @GetMapping("/page")
+    public ResponseEntity<CursorPage<BookDTO>> getBooksPage(@RequestParam(required = false) String after,
+                                                            @RequestParam(defaultValue = "" + CursorUtil.DEFAULT_PAGE_SIZE) int limit,
+                                                            WebRequest request) {
+        logger.info("Request to get a page of books after cursor: {}", after);
+        try {
+            String eTag = ETagUtil.of(bookService.getCatalogVersion());
+            if (request.checkNotModified(eTag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+            }
+            return ResponseEntity.ok().eTag(eTag).body(bookService.getBooks(after, limit));
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<CursorPage<BookSummary>> searchBooks(@RequestParam(required = false) String isbn,
+                                                               @RequestParam(required = false) String title,
+                                                               @RequestParam(required = false) String author,
+                                                               @RequestParam(defaultValue = "PREFIX") SearchMatch match,
+                                                               @RequestParam(required = false) String after,
+                                                               @RequestParam(defaultValue = "" + CursorUtil.DEFAULT_PAGE_SIZE) int limit) {
+        logger.info("Request to search books by isbn: {}, title: {}, author: {}", isbn, title, author);
+        try {
+            return ResponseEntity.ok(bookService.searchBooks(isbn, title, author, match, after, limit));
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @GetMapping(value = "/search", params = "q")
+    public ResponseEntity<List<BookSearchHitDTO>> searchCatalog(@RequestParam String q,
+                                                                @RequestParam(defaultValue = "" + CursorUtil.DEFAULT_PAGE_SIZE) int limit) {
+        logger.info("Request to search the catalog for: {}", q);
+        try {
+            return ResponseEntity.ok(bookService.searchCatalog(q, limit));
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportBooks() {
+        logger.info("Request to export all books");
+        StreamingResponseBody body = outputStream -> {
+            // One object per line: no separator of Jackson's own between root values, only the newline below.
+            try (JsonGenerator generator = objectMapper.createGenerator(outputStream).setRootValueSeparator(null)) {
+                bookService.exportBooks(bookDTO -> {
+                    try {
+                        generator.writeObject(bookDTO);
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    @GetMapping("/availability/{isbn}")
+    public ResponseEntity<IsbnAvailabilityDTO> getAvailability(@PathVariable String isbn) {
+        logger.info("Request to get availability of isbn: {}", isbn);
+        return ResponseEntity.ok(bookService.getAvailability(isbn));
+    }
+
+    @GetMapping("/{bookId}/history")
+    public ResponseEntity<CursorPage<LoanEventDTO>> getHistory(@PathVariable Long bookId,
+                                                               @RequestParam(required = false) String after,
+                                                               @RequestParam(defaultValue = "" + CursorUtil.DEFAULT_PAGE_SIZE) int limit) {
+        logger.info("Request to get loan history of book with id: {}", bookId);
+        try {
+            return ResponseEntity.ok(bookService.getHistory(bookId, after, limit));
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
     }
 
     @GetMapping("/{bookId}")
-    public ResponseEntity<BookDTO> getBookDetails(@PathVariable Long bookId) {
+    public ResponseEntity<BookDTO> getBookDetails(@PathVariable Long bookId, WebRequest request) {
         logger.info("Request to get a book with id: {}", bookId);
+        String eTag = ETagUtil.of(bookService.getBookVersion(bookId));
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
         BookDTO bookDTO = bookService.getBookById(bookId);
-        return ResponseEntity.ok(bookDTO);
+        return ResponseEntity.ok().eTag(eTag).body(bookDTO);
     }
 }
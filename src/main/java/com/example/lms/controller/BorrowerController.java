@@ -1,12 +1,22 @@
 package com.example.lms.controller;
 
 import com.example.lms.dto.BorrowerDTO;
+import com.example.lms.dto.BorrowerLoansDTO;
+import com.example.lms.dto.CursorPage;
+import com.example.lms.dto.LoanBatchRequestDTO;
+import com.example.lms.dto.LoanBatchResultDTO;
+import com.example.lms.dto.LoanEventDTO;
+import com.example.lms.exception.LoanBatchRejectedException;
+import com.example.lms.exception.ResourceNotFoundException;
 import com.example.lms.service.BorrowerService;
+import com.example.lms.util.CursorUtil;
+import com.example.lms.util.ETagUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -23,7 +33,7 @@ public class BorrowerController {
 
     @PostMapping
     public ResponseEntity<BorrowerDTO> registerBorrower(@RequestBody BorrowerDTO borrowerDTO) {
-        logger.info("Request to create a borrower: {}", borrowerDTO);
+        logger.info("Request to create a borrower");
         BorrowerDTO savedBorrower = borrowerService.registerBorrower(borrowerDTO);
         return new ResponseEntity<>(savedBorrower, HttpStatus.CREATED);
     }
@@ -42,17 +52,102 @@ public class BorrowerController {
         return ResponseEntity.ok("Book returned successfully");
     }
 
+    @PostMapping("/{borrowerId}/borrow")
+    public ResponseEntity<List<LoanBatchResultDTO>> borrowBooks(@PathVariable Long borrowerId, @RequestBody LoanBatchRequestDTO request) {
+        logger.info("Request to borrow {} books with borrowerId: {}", sizeOf(request), borrowerId);
+        try {
+            return ResponseEntity.ok(borrowerService.borrowBooks(borrowerId, request));
+        } catch (LoanBatchRejectedException e) {
+            return new ResponseEntity<>(e.getResults(), HttpStatus.CONFLICT);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @PostMapping("/{borrowerId}/return")
+    public ResponseEntity<List<LoanBatchResultDTO>> returnBooks(@PathVariable Long borrowerId, @RequestBody LoanBatchRequestDTO request) {
+        logger.info("Request to return {} books with borrowerId: {}", sizeOf(request), borrowerId);
+        try {
+            return ResponseEntity.ok(borrowerService.returnBooks(borrowerId, request));
+        } catch (LoanBatchRejectedException e) {
+            return new ResponseEntity<>(e.getResults(), HttpStatus.CONFLICT);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
     @GetMapping
-    public ResponseEntity<List<BorrowerDTO>> getAllBorrowers() {
+    public ResponseEntity<List<BorrowerDTO>> getAllBorrowers(WebRequest request) {
         logger.info("Request to get all borrowers");
+        String eTag = ETagUtil.of(borrowerService.getBorrowersVersion());
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
         List<BorrowerDTO> borrowers = borrowerService.getAllBorrowers();
-        return ResponseEntity.ok(borrowers);
+        return ResponseEntity.ok().eTag(eTag).body(borrowers);
+    }
+
+    @GetMapping("/page")
+    public ResponseEntity<CursorPage<BorrowerDTO>> getBorrowersPage(@RequestParam(required = false) String after,
+                                                                    @RequestParam(defaultValue = "" + CursorUtil.DEFAULT_PAGE_SIZE) int limit,
+                                                                    WebRequest request) {
+        logger.info("Request to get a page of borrowers after cursor: {}", after);
+        try {
+            String eTag = ETagUtil.of(borrowerService.getBorrowersVersion());
+            if (request.checkNotModified(eTag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+            }
+            return ResponseEntity.ok().eTag(eTag).body(borrowerService.getBorrowers(after, limit));
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @GetMapping("/{borrowerId}/books")
+    public ResponseEntity<BorrowerLoansDTO> getLoans(@PathVariable Long borrowerId,
+                                                     @RequestParam(required = false) String after,
+                                                     @RequestParam(defaultValue = "" + CursorUtil.DEFAULT_PAGE_SIZE) int limit,
+                                                     WebRequest request) {
+        logger.info("Request to get books held by borrower with id: {}", borrowerId);
+        try {
+            // The collection version says nothing about this borrower, so resolve it before a 304 can be answered.
+            borrowerService.getBorrowerVersion(borrowerId);
+            String eTag = ETagUtil.of(borrowerService.getLoansVersion());
+            if (request.checkNotModified(eTag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+            }
+            return ResponseEntity.ok().eTag(eTag).body(borrowerService.getLoans(borrowerId, after, limit));
+        } catch (ResourceNotFoundException e) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @GetMapping("/{borrowerId}/history")
+    public ResponseEntity<CursorPage<LoanEventDTO>> getHistory(@PathVariable Long borrowerId,
+                                                               @RequestParam(required = false) String after,
+                                                               @RequestParam(defaultValue = "" + CursorUtil.DEFAULT_PAGE_SIZE) int limit) {
+        logger.info("Request to get loan history of borrower with id: {}", borrowerId);
+        try {
+            return ResponseEntity.ok(borrowerService.getHistory(borrowerId, after, limit));
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
     }
 
     @GetMapping("/{borrowerId}")
-    public ResponseEntity<BorrowerDTO> getBorrowerDetails(@PathVariable Long borrowerId) {
+    public ResponseEntity<BorrowerDTO> getBorrowerDetails(@PathVariable Long borrowerId, WebRequest request) {
         logger.info("Request to get borrower with id: {}", borrowerId);
+        String eTag = ETagUtil.of(borrowerService.getBorrowerVersion(borrowerId));
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
         BorrowerDTO borrowerDTO = borrowerService.getBorrowerById(borrowerId);
-        return ResponseEntity.ok(borrowerDTO);
+        return ResponseEntity.ok().eTag(eTag).body(borrowerDTO);
+    }
+
+    private static int sizeOf(LoanBatchRequestDTO request) {
+        return request.getBookIds() == null ? 0 : request.getBookIds().size();
     }
-}
\ No newline at end of file
+}
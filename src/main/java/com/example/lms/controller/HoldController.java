@@ -0,0 +1,56 @@
+package com.example.lms.controller;
+
+import com.example.lms.dto.HoldDTO;
+import com.example.lms.dto.HoldRequestDTO;
+import com.example.lms.dto.HoldStatus;
+import com.example.lms.exception.DuplicateHoldException;
+import com.example.lms.service.HoldService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/holds")
+public class HoldController {
+    private static final Logger logger = LoggerFactory.getLogger(HoldController.class);
+
+    private final HoldService holdService;
+
+    public HoldController(HoldService holdService) {
+        this.holdService = holdService;
+    }
+
+    @PostMapping
+    public ResponseEntity<HoldDTO> placeHold(@RequestBody HoldRequestDTO request) {
+        logger.info("Request to place a hold with borrowerId: {}, isbn: {}", request.getBorrowerId(), request.getIsbn());
+        try {
+            HoldDTO hold = holdService.placeHold(request.getBorrowerId(), request.getIsbn());
+            return new ResponseEntity<>(hold, hold.getStatus() == HoldStatus.WAITING ? HttpStatus.CREATED : HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (DuplicateHoldException e) {
+            return new ResponseEntity<>(HttpStatus.CONFLICT);
+        }
+    }
+
+    @DeleteMapping("/{holdId}")
+    public ResponseEntity<Void> cancelHold(@PathVariable Long holdId, @RequestParam Long borrowerId) {
+        logger.info("Request to cancel hold with id: {}, borrowerId: {}", holdId, borrowerId);
+        holdService.cancelHold(borrowerId, holdId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping
+    public ResponseEntity<List<HoldDTO>> getHolds(@RequestParam(required = false) Long borrowerId,
+                                                  @RequestParam(required = false) String isbn) {
+        logger.info("Request to get holds with borrowerId: {}, isbn: {}", borrowerId, isbn);
+        if ((borrowerId == null) == (isbn == null)) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        return ResponseEntity.ok(borrowerId != null ? holdService.getHoldsOfBorrower(borrowerId) : holdService.getHoldsOfIsbn(isbn));
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.lms.controller;
+
+import com.example.lms.dto.StatsDimension;
+import com.example.lms.dto.TopBorrowedDTO;
+import com.example.lms.stats.BorrowStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/stats")
+public class StatsController {
+    private static final Logger logger = LoggerFactory.getLogger(StatsController.class);
+
+    private final BorrowStats borrowStats;
+
+    public StatsController(BorrowStats borrowStats) {
+        this.borrowStats = borrowStats;
+    }
+
+    @GetMapping("/top")
+    public ResponseEntity<TopBorrowedDTO> getTopBorrowed(@RequestParam(defaultValue = "ISBN") StatsDimension by,
+                                                         @RequestParam(defaultValue = "1h") String window,
+                                                         @RequestParam(defaultValue = "10") int limit) {
+        logger.info("Request to get the top {} most borrowed by {} over {}", limit, by, window);
+        try {
+            return ResponseEntity.ok(borrowStats.top(by, DurationStyle.detectAndParse(window), limit));
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.lms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one item of a bulk registration; {@code index} is the item's position in the request.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookBatchResultDTO {
+    private int index;
+    private boolean success;
+    private BookDTO book;
+    private String error;
+}
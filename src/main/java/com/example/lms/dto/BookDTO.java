@@ -4,6 +4,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.Instant;
+
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -13,4 +15,18 @@ public class BookDTO {
     private String title;
     private String author;
     private Long borrowerId;
+
+    /**
+     * End of the current loan; read-only, ignored when registering books.
+     */
+    private Instant dueAt;
+
+    /**
+     * Whether the current loan has been found overdue; read-only, ignored when registering books.
+     */
+    private boolean overdue;
+
+    public BookDTO(Long id, String isbn, String title, String author, Long borrowerId) {
+        this(id, isbn, title, author, borrowerId, null, false);
+    }
 }
@@ -0,0 +1,15 @@
+package com.example.lms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookSearchHitDTO {
+    private String isbn;
+    private String title;
+    private String author;
+    private float score;
+}
@@ -0,0 +1,21 @@
+package com.example.lms.dto;
+
+import com.example.lms.repository.projection.BookSummary;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * The books a borrower currently holds, one keyset page at a time, with the total number of loans.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BorrowerLoansDTO {
+    private Long borrowerId;
+    private long loanCount;
+    private List<BookSummary> books;
+    private String nextCursor;
+}
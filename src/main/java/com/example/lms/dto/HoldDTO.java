@@ -0,0 +1,24 @@
+package com.example.lms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * A hold and its place in the queue of its ISBN, 1 being next in line. A hold fulfilled when it was placed has no
+ * id or position, only the {@code bookId} of the copy that was lent.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class HoldDTO {
+    private Long id;
+    private String isbn;
+    private Long borrowerId;
+    private Instant placedAt;
+    private HoldStatus status;
+    private Integer position;
+    private Long bookId;
+}
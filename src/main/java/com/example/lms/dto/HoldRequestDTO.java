@@ -0,0 +1,13 @@
+package com.example.lms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class HoldRequestDTO {
+    private Long borrowerId;
+    private String isbn;
+}
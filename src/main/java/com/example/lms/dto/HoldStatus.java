@@ -0,0 +1,11 @@
+package com.example.lms.dto;
+
+/**
+ * Outcome of placing a hold.
+ */
+public enum HoldStatus {
+    /** No copy was free; the borrower is queued and gets the next copy returned after those ahead of them. */
+    WAITING,
+    /** A copy was free and nobody was queued, so it was lent right away. */
+    FULFILLED
+}
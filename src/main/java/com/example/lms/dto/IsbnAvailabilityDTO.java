@@ -0,0 +1,14 @@
+package com.example.lms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class IsbnAvailabilityDTO {
+    private String isbn;
+    private long total;
+    private long available;
+}
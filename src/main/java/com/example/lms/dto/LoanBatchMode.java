@@ -0,0 +1,11 @@
+package com.example.lms.dto;
+
+/**
+ * How a multi-book checkout or return treats items that cannot be processed.
+ */
+public enum LoanBatchMode {
+    /** Any failing item rejects the whole batch and nothing is changed. */
+    ALL_OR_NOTHING,
+    /** Items that can be processed are, failing items are reported individually. */
+    PER_ITEM
+}
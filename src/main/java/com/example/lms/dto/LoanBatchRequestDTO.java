@@ -0,0 +1,15 @@
+package com.example.lms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class LoanBatchRequestDTO {
+    private List<Long> bookIds;
+    private LoanBatchMode mode = LoanBatchMode.ALL_OR_NOTHING;
+}
@@ -0,0 +1,17 @@
+package com.example.lms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome for one book of a multi-book checkout or return, in request order.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class LoanBatchResultDTO {
+    private Long bookId;
+    private boolean success;
+    private String error;
+}
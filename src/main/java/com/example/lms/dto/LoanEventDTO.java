@@ -0,0 +1,21 @@
+package com.example.lms.dto;
+
+import com.example.lms.entity.LoanEventType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class LoanEventDTO {
+    private Long id;
+    private LoanEventType type;
+    private Long bookId;
+    private Long borrowerId;
+    private String isbn;
+    private Instant occurredAt;
+    private Instant dueAt;
+}
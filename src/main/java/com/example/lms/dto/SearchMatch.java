@@ -0,0 +1,10 @@
+package com.example.lms.dto;
+
+/**
+ * How title and author search terms are matched. Only {@link #PREFIX} can use the column indexes;
+ * {@link #CONTAINS} has to scan the candidate rows.
+ */
+public enum SearchMatch {
+    PREFIX,
+    CONTAINS
+}
@@ -0,0 +1,11 @@
+package com.example.lms.dto;
+
+/**
+ * What borrows are counted by in the most-borrowed rankings.
+ */
+public enum StatsDimension {
+    /** Each ISBN, i.e. each title, counted over all its copies. */
+    ISBN,
+    /** Each author, counted over all their titles. */
+    AUTHOR
+}
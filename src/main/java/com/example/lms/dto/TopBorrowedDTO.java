@@ -0,0 +1,24 @@
+package com.example.lms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * The most borrowed ISBNs or authors over the {@code window} ending at {@code asOf}, most borrowed first.
+ * {@code borrows} is the exact number of borrows in the window.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TopBorrowedDTO {
+    private StatsDimension by;
+    private Duration window;
+    private Instant asOf;
+    private long borrows;
+    private List<TopBorrowedEntryDTO> items;
+}
@@ -0,0 +1,18 @@
+package com.example.lms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One ISBN or author of a most-borrowed ranking. {@code borrows} is an estimate that may overcount, never
+ * undercount; {@code title} is only set when ranking ISBNs.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TopBorrowedEntryDTO {
+    private String key;
+    private String title;
+    private long borrows;
+}
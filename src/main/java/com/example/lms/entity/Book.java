@@ -5,18 +5,35 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
+import java.time.Instant;
 import java.util.Objects;
 
 @Entity
-@Table(name = "book")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "book")
+@Table(name = "book", indexes = {
+        @Index(name = "idx_book_isbn", columnList = "isbn, id"),
+        @Index(name = "idx_book_title", columnList = "title, id"),
+        @Index(name = "idx_book_author", columnList = "author, id"),
+        @Index(name = "idx_book_borrower", columnList = "borrower_id, id"),
+        @Index(name = "idx_book_overdue", columnList = "overdue, due_at, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Book {
+    /**
+     * Ids Hibernate takes from {@code book_seq} per round trip, so batch inserts need not read the sequence per row.
+     */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_seq")
+    @SequenceGenerator(name = "book_seq", sequenceName = "book_seq", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @Column(nullable = false)
@@ -32,6 +49,47 @@ public class Book {
     @JoinColumn(name = "borrower_id")
     private Borrower borrower;
 
+    /**
+     * When the current loan started; {@code null} while the copy is on the shelf.
+     */
+    private Instant loanedAt;
+
+    /**
+     * When the current loan ends; {@code null} while the copy is on the shelf.
+     */
+    private Instant dueAt;
+
+    /**
+     * Set by the overdue scan once {@code dueAt} has passed, and cleared with the loan.
+     */
+    @Column(nullable = false)
+    private boolean overdue;
+
+    /**
+     * Incremented by Hibernate on every entity update. It is the book's ETag.
+     */
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    public Book(Long id, String isbn, String title, String author, Borrower borrower) {
+        this(id, isbn, title, author, borrower, null, null, false, null);
+    }
+
+    public void lendTo(Borrower borrower, Instant loanedAt, Instant dueAt) {
+        this.borrower = borrower;
+        this.loanedAt = loanedAt;
+        this.dueAt = dueAt;
+        this.overdue = false;
+    }
+
+    public void shelve() {
+        this.borrower = null;
+        this.loanedAt = null;
+        this.dueAt = null;
+        this.overdue = false;
+    }
+
     public boolean isAlreadyBorrowed(){
         return !Objects.isNull(this.borrower);
     }
@@ -5,8 +5,12 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "borrower")
 @Table(name = "borrower")
 @Data
 @NoArgsConstructor
@@ -22,4 +26,15 @@ public class Borrower {
 
     @Column(nullable = false)
     private String name;
-}
\ No newline at end of file
+
+    /**
+     * Incremented by Hibernate on every update; it is the borrower's ETag.
+     */
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    public Borrower(Long id, String email, String name) {
+        this(id, email, name, null);
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.lms.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * A borrower waiting for a copy of an ISBN. Holds of an ISBN are served in id order; the row is deleted when the
+ * hold is cancelled or a returned copy is lent to its borrower.
+ */
+@Entity
+@Table(name = "book_hold", indexes = {
+        @Index(name = "idx_book_hold_isbn", columnList = "isbn, id"),
+        @Index(name = "idx_book_hold_borrower", columnList = "borrower_id, id")
+}, uniqueConstraints = {
+        @UniqueConstraint(name = "uk_book_hold_isbn_borrower", columnNames = {"isbn", "borrower_id"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Hold {
+    /**
+     * Assigned by the database on insert, so the order of ids is the order holds were placed in, across instances.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String isbn;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "borrower_id", nullable = false)
+    private Borrower borrower;
+
+    @Column(nullable = false)
+    private Instant placedAt;
+
+    /**
+     * A cancel racing a return that claims the hold both delete it; the version check fails the cancel, which is retried.
+     */
+    @Version
+    @Column(nullable = false)
+    private Long version;
+}
@@ -0,0 +1,25 @@
+package com.example.lms.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+/**
+ * Copy counters for one ISBN, kept in step with {@code book} by the services that register, lend and return copies.
+ */
+@Entity
+@Table(name = "isbn_availability")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IsbnAvailability {
+    @Id
+    private String isbn;
+
+    @Column(nullable = false)
+    private long total;
+
+    @Column(nullable = false)
+    private long available;
+}
@@ -0,0 +1,76 @@
+package com.example.lms.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.time.Instant;
+
+/**
+ * One borrow or return, appended to the ledger in the transaction that changes the copy and never modified
+ * afterwards. Book and borrower are plain ids rather than associations: the ledger outlives rows it refers to, and
+ * a partitioned MySQL table cannot have foreign keys (see {@code scripts/mysql/loan-event-partitions.sql}).
+ */
+@Entity
+@Immutable
+@Table(name = "loan_event", indexes = {
+        @Index(name = "idx_loan_event_book_time", columnList = "book_id, occurred_at, id"),
+        @Index(name = "idx_loan_event_borrower_time", columnList = "borrower_id, occurred_at, id")
+})
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoanEvent {
+    /**
+     * Ids Hibernate takes from {@code loan_event_seq} per round trip, so the events of a batch are inserted in JDBC
+     * batches.
+     */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    /**
+     * Unique, but each instance hands out its own block of ids, so ids are only ordered within an instance. Histories
+     * are listed by {@link #occurredAt}, with the id breaking ties.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "loan_event_seq")
+    @SequenceGenerator(name = "loan_event_seq", sequenceName = "loan_event_seq", allocationSize = ID_ALLOCATION_SIZE)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private LoanEventType type;
+
+    @Column(name = "book_id", nullable = false)
+    private Long bookId;
+
+    @Column(name = "borrower_id", nullable = false)
+    private Long borrowerId;
+
+    @Column(nullable = false)
+    private String isbn;
+
+    @Column(nullable = false)
+    private Instant occurredAt;
+
+    /**
+     * End of the loan, on {@link LoanEventType#BORROWED} events.
+     */
+    private Instant dueAt;
+
+    public static LoanEvent borrowed(Book book, Long borrowerId) {
+        return borrowed(book, borrowerId, book.getLoanedAt(), book.getDueAt());
+    }
+
+    /**
+     * For a loan written by a conditional update, which leaves {@code book} as it was read.
+     */
+    public static LoanEvent borrowed(Book book, Long borrowerId, Instant loanedAt, Instant dueAt) {
+        return new LoanEvent(null, LoanEventType.BORROWED, book.getId(), borrowerId, book.getIsbn(), loanedAt, dueAt);
+    }
+
+    public static LoanEvent returned(Book book, Long borrowerId, Instant returnedAt) {
+        return new LoanEvent(null, LoanEventType.RETURNED, book.getId(), borrowerId, book.getIsbn(), returnedAt, null);
+    }
+}
@@ -0,0 +1,6 @@
+package com.example.lms.entity;
+
+public enum LoanEventType {
+    BORROWED,
+    RETURNED
+}
@@ -0,0 +1,28 @@
+package com.example.lms.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+/**
+ * A single row the application rewrites on the primary every few seconds while read replicas are configured. The
+ * age of the copy a replica serves is how far that replica lags behind the primary.
+ */
+@Entity
+@Table(name = "replica_heartbeat")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReplicaHeartbeat {
+    public static final int ID = 1;
+
+    @Id
+    private Integer id;
+
+    /**
+     * Wall-clock time of the last heartbeat, in epoch milliseconds.
+     */
+    @Column(nullable = false)
+    private long beatMillis;
+}
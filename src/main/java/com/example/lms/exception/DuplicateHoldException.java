@@ -0,0 +1,7 @@
+package com.example.lms.exception;
+
+public class DuplicateHoldException extends RuntimeException {
+    public DuplicateHoldException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.lms.exception;
+
+import com.example.lms.dto.LoanBatchResultDTO;
+
+import java.util.List;
+
+/**
+ * Thrown when an all-or-nothing checkout or return has a failing item; carries the per-item outcome.
+ */
+public class LoanBatchRejectedException extends RuntimeException {
+    private final List<LoanBatchResultDTO> results;
+
+    public LoanBatchRejectedException(List<LoanBatchResultDTO> results) {
+        super("Loan batch rejected");
+        this.results = results;
+    }
+
+    public List<LoanBatchResultDTO> getResults() {
+        return results;
+    }
+}
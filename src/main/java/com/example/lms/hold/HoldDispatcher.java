@@ -0,0 +1,40 @@
+package com.example.lms.hold;
+
+import com.example.lms.entity.Hold;
+import com.example.lms.repository.HoldRepository;
+import com.example.lms.repository.IsbnAvailabilityRepository;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hands copies that come back on the shelf, returned or newly registered, to the borrowers waiting for them.
+ */
+@Component
+public class HoldDispatcher {
+
+    private final HoldRepository holdRepository;
+    private final IsbnAvailabilityRepository isbnAvailabilityRepository;
+
+    public HoldDispatcher(HoldRepository holdRepository, IsbnAvailabilityRepository isbnAvailabilityRepository) {
+        this.holdRepository = holdRepository;
+        this.isbnAvailabilityRepository = isbnAvailabilityRepository;
+    }
+
+    /**
+     * Takes the oldest hold queued for the ISBN and deletes its row, in the caller's transaction. The ISBN's
+     * {@code isbn_availability} row is locked first, as {@code placeHold} does before deciding between lending and
+     * queueing: a hold placed while this transaction runs is seen here, and a hold placed after it sees the copy
+     * counted as available. The hold row is read under a write lock too, so a concurrent return on any instance waits
+     * for this transaction and then gets the next hold; holds deleted earlier in the same transaction are flushed
+     * before the read and never come back. The caller lends the copy to the hold's borrower.
+     *
+     * @return the hold, or {@code null} when nobody is waiting
+     */
+    public Hold claimNext(String isbn) {
+        isbnAvailabilityRepository.findLockedByIsbn(isbn);
+        Hold hold = holdRepository.findFirstByIsbnOrderByIdAsc(isbn).orElse(null);
+        if (hold != null) {
+            holdRepository.delete(hold);
+        }
+        return hold;
+    }
+}
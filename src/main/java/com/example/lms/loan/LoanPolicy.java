@@ -0,0 +1,27 @@
+package com.example.lms.loan;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * How long a copy may be kept, set with {@code lms.loans.period}.
+ */
+@Component
+public class LoanPolicy {
+
+    private final Duration period;
+
+    public LoanPolicy(@Value("${lms.loans.period:14d}") Duration period) {
+        if (!period.isPositive()) {
+            throw new IllegalArgumentException("Loan period must be positive");
+        }
+        this.period = period;
+    }
+
+    public Instant dueAt(Instant loanedAt) {
+        return loanedAt.plus(period);
+    }
+}
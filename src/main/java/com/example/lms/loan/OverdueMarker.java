@@ -0,0 +1,57 @@
+package com.example.lms.loan;
+
+import com.example.lms.aspect.OptimisticRetry;
+import com.example.lms.entity.Book;
+import com.example.lms.entity.CollectionVersion;
+import com.example.lms.mapper.BookMapper;
+import com.example.lms.repository.BookRepository;
+import com.example.lms.repository.CollectionVersionRepository;
+import com.example.lms.util.TransactionUtil;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Marks one chunk of loans overdue in its own short transaction. The copies are re-read and written back under
+ * their version, so a copy returned or renewed since the scan read it is left alone.
+ */
+@Component
+public class OverdueMarker {
+
+    private final BookRepository bookRepository;
+    private final CollectionVersionRepository collectionVersionRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public OverdueMarker(BookRepository bookRepository, CollectionVersionRepository collectionVersionRepository,
+                         ApplicationEventPublisher eventPublisher) {
+        this.bookRepository = bookRepository;
+        this.collectionVersionRepository = collectionVersionRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * @return how many of the loans were marked
+     */
+    @OptimisticRetry
+    @Transactional
+    public int markOverdue(List<Long> bookIds, Instant now) {
+        List<OverdueNotice> notices = new ArrayList<>();
+        for (Book book : bookRepository.findAllCurrentById(bookIds)) {
+            if (book.isAlreadyBorrowed() && !book.isOverdue() && book.getDueAt() != null && book.getDueAt().isBefore(now)) {
+                book.setOverdue(true);
+                notices.add(new OverdueNotice(book.getId(), book.getIsbn(), BookMapper.borrowerIdOf(book), book.getDueAt()));
+            }
+        }
+        if (notices.isEmpty()) {
+            return 0;
+        }
+        bookRepository.flush();
+        collectionVersionRepository.bump(CollectionVersion.BOOKS);
+        TransactionUtil.afterCommit(() -> notices.forEach(eventPublisher::publishEvent));
+        return notices.size();
+    }
+}
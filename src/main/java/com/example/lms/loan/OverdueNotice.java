@@ -0,0 +1,9 @@
+package com.example.lms.loan;
+
+import java.time.Instant;
+
+/**
+ * Published once the transaction that marks a loan overdue commits.
+ */
+public record OverdueNotice(Long bookId, String isbn, Long borrowerId, Instant dueAt) {
+}
@@ -0,0 +1,22 @@
+package com.example.lms.loan;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes every overdue notice to the log; a mail or messaging listener can subscribe to {@link OverdueNotice} the
+ * same way.
+ */
+@Component
+public class OverdueNoticeLogger {
+
+    private static final Logger logger = LoggerFactory.getLogger(OverdueNoticeLogger.class);
+
+    @EventListener
+    public void onOverdue(OverdueNotice notice) {
+        logger.info("Book {} (isbn {}) lent to borrower {} was due at {}",
+                notice.bookId(), notice.isbn(), notice.borrowerId(), notice.dueAt());
+    }
+}
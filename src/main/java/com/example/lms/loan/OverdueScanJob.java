@@ -0,0 +1,125 @@
+package com.example.lms.loan;
+
+import com.example.lms.repository.BookRepository;
+import com.example.lms.repository.projection.LoanDue;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Finds loans past their due date and marks them overdue. The scan reads the overdue index in keyset chunks of
+ * {@code chunk-size} ids, each an autocommit query, and hands every chunk to {@link OverdueMarker}, which marks it
+ * in a transaction of its own. At most {@code parallelism} chunks are being marked at once while the next ones are
+ * read, so neither the scan nor any transaction grows with the number of loans.
+ */
+@Component
+@ConditionalOnProperty(name = "lms.loans.overdue.enabled", havingValue = "true", matchIfMissing = true)
+public class OverdueScanJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(OverdueScanJob.class);
+
+    private final BookRepository bookRepository;
+    private final OverdueMarker overdueMarker;
+    private final int chunkSize;
+    private final int parallelism;
+    private final Counter scanned;
+    private final Counter marked;
+    private final Counter failedChunks;
+    private final Timer scans;
+
+    public OverdueScanJob(BookRepository bookRepository, OverdueMarker overdueMarker,
+                          @Value("${lms.loans.overdue.chunk-size:500}") int chunkSize,
+                          @Value("${lms.loans.overdue.parallelism:2}") int parallelism,
+                          MeterRegistry meterRegistry) {
+        if (chunkSize < 1 || parallelism < 1) {
+            throw new IllegalArgumentException("Overdue scan chunk size and parallelism must be positive");
+        }
+        this.bookRepository = bookRepository;
+        this.overdueMarker = overdueMarker;
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+        this.scanned = Counter.builder("lms.loans.overdue.scanned")
+                .description("Loans past their due date read by the overdue scan")
+                .register(meterRegistry);
+        this.marked = Counter.builder("lms.loans.overdue.marked")
+                .description("Loans marked overdue")
+                .register(meterRegistry);
+        this.failedChunks = Counter.builder("lms.loans.overdue.failed.chunks")
+                .description("Chunks the overdue scan could not mark; their loans are picked up by the next scan")
+                .register(meterRegistry);
+        this.scans = Timer.builder("lms.loans.overdue.scan")
+                .description("Duration of a whole overdue scan")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${lms.loans.overdue.scan-interval:PT15M}",
+            initialDelayString = "${lms.loans.overdue.initial-delay:PT1M}")
+    public void scheduledScan() {
+        scan(Instant.now());
+    }
+
+    /**
+     * @return how many loans were marked overdue
+     */
+    public long scan(Instant now) {
+        long started = System.nanoTime();
+        Semaphore inFlight = new Semaphore(parallelism);
+        LongAdder markedInScan = new LongAdder();
+        long chunks = 0;
+        Instant afterDue = Instant.EPOCH;
+        long afterId = 0;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            while (true) {
+                List<LoanDue> chunk = bookRepository.findOverdueLoans(now, afterDue, afterId, Limit.of(chunkSize));
+                if (chunk.isEmpty()) {
+                    break;
+                }
+                scanned.increment(chunk.size());
+                chunks++;
+                LoanDue last = chunk.get(chunk.size() - 1);
+                afterDue = last.getDueAt();
+                afterId = last.getId();
+
+                List<Long> bookIds = chunk.stream().map(LoanDue::getId).toList();
+                inFlight.acquire();
+                executor.submit(() -> {
+                    try {
+                        markedInScan.add(overdueMarker.markOverdue(bookIds, now));
+                    } catch (RuntimeException e) {
+                        failedChunks.increment();
+                        logger.warn("Could not mark a chunk of {} overdue loans", bookIds.size(), e);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+                if (chunk.size() < chunkSize) {
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Overdue scan interrupted after {} chunks", chunks);
+        }
+
+        long elapsed = System.nanoTime() - started;
+        scans.record(elapsed, TimeUnit.NANOSECONDS);
+        marked.increment(markedInScan.sum());
+        logger.info("Overdue scan marked {} loans in {} chunks in {} ms", markedInScan.sum(), chunks, elapsed / 1_000_000);
+        return markedInScan.sum();
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.lms.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.LoggerContext;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.ILoggerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Publishes the depth and capacity of the queues of the {@code ASYNC_CONSOLE} and {@code ASYNC_FILE} appenders, and
+ * the events they dropped, tagged {@code appender=<name>}. Drops are only counted by a {@link CountingAsyncAppender}. The appenders are looked up on every read because Spring Boot reconfigures Logback
+ * after startup and replaces them.
+ */
+@Component
+public class AsyncLoggingMetrics implements MeterBinder {
+
+    static final List<String> APPENDER_NAMES = List.of("ASYNC_CONSOLE", "ASYNC_FILE");
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (String name : APPENDER_NAMES) {
+            Gauge.builder("logging.async.queued", this, metric(name, AsyncAppender::getNumberOfElementsInQueue))
+                    .description("Log events waiting in the async appender's queue")
+                    .tag("appender", name)
+                    .register(registry);
+            Gauge.builder("logging.async.capacity", this, metric(name, AsyncAppender::getQueueSize))
+                    .description("Capacity of the async appender's queue")
+                    .tag("appender", name)
+                    .register(registry);
+            FunctionCounter.builder("logging.async.dropped", this, metric(name, appender ->
+                            appender instanceof CountingAsyncAppender counting ? counting.getDroppedCount() : Double.NaN))
+                    .description("Log events the async appender dropped because its queue was full or nearly full")
+                    .tag("appender", name)
+                    .register(registry);
+        }
+    }
+
+    private static ToDoubleFunction<AsyncLoggingMetrics> metric(String name, ToDoubleFunction<AsyncAppender> value) {
+        return metrics -> {
+            AsyncAppender appender = currentAppender(name);
+            return appender == null ? Double.NaN : value.applyAsDouble(appender);
+        };
+    }
+
+    private static AsyncAppender currentAppender(String name) {
+        ILoggerFactory loggerFactory = LoggerFactory.getILoggerFactory();
+        if (loggerFactory instanceof LoggerContext context
+                && context.getLogger(Logger.ROOT_LOGGER_NAME).getAppender(name) instanceof AsyncAppender appender) {
+            return appender;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.lms.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An {@link AsyncAppender} that counts the events it drops: TRACE to INFO events arriving while fewer than
+ * {@code discardingThreshold} slots are free, and with {@code neverBlock} any event that finds the queue full.
+ * {@code AsyncAppender} drops them silently. The checks run here, just before the event is handed on; another thread
+ * can take the last slot in between, so under contention the count may miss a drop, but it never counts a queued
+ * event.
+ */
+public class CountingAsyncAppender extends AsyncAppender {
+
+    private final LongAdder dropped = new LongAdder();
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        int remainingCapacity = getRemainingCapacity();
+        if ((remainingCapacity < getDiscardingThreshold() && isDiscardable(event))
+                || (isNeverBlock() && remainingCapacity == 0)) {
+            dropped.increment();
+            return;
+        }
+        super.append(event);
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.lms.mapper;
+
+import com.example.lms.dto.BookDTO;
+import com.example.lms.entity.Book;
+import com.example.lms.entity.Borrower;
+import org.hibernate.proxy.HibernateProxy;
+import org.springframework.stereotype.Component;
+
+/**
+ * Plain field-by-field mapping between {@link Book} and {@link BookDTO}; no reflection per call.
+ */
+@Component
+public class BookMapper {
+
+    public BookDTO toDto(Book book) {
+        return new BookDTO(book.getId(), book.getIsbn(), book.getTitle(), book.getAuthor(), borrowerIdOf(book),
+                book.getDueAt(), book.isOverdue());
+    }
+
+    /**
+     * Maps the scalar fields only; the borrower association is resolved by the caller.
+     */
+    public Book toEntity(BookDTO bookDTO) {
+        return Book.builder()
+                .id(bookDTO.getId())
+                .isbn(bookDTO.getIsbn())
+                .title(bookDTO.getTitle())
+                .author(bookDTO.getAuthor())
+                .build();
+    }
+
+    /**
+     * Reads the borrower's id from the lazy proxy's identifier instead of initializing the proxy.
+     */
+    public static Long borrowerIdOf(Book book) {
+        Borrower borrower = book.getBorrower();
+        if (borrower == null) {
+            return null;
+        }
+        if (borrower instanceof HibernateProxy proxy) {
+            return (Long) proxy.getHibernateLazyInitializer().getInternalIdentifier();
+        }
+        return borrower.getId();
+    }
+}
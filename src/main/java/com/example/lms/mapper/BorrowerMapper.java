@@ -0,0 +1,24 @@
+package com.example.lms.mapper;
+
+import com.example.lms.dto.BorrowerDTO;
+import com.example.lms.entity.Borrower;
+import org.springframework.stereotype.Component;
+
+/**
+ * Plain field-by-field mapping between {@link Borrower} and {@link BorrowerDTO}.
+ */
+@Component
+public class BorrowerMapper {
+
+    public BorrowerDTO toDto(Borrower borrower) {
+        return new BorrowerDTO(borrower.getId(), borrower.getEmail(), borrower.getName());
+    }
+
+    public Borrower toEntity(BorrowerDTO borrowerDTO) {
+        return Borrower.builder()
+                .id(borrowerDTO.getId())
+                .email(borrowerDTO.getEmail())
+                .name(borrowerDTO.getName())
+                .build();
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.lms.mapper;
+
+import com.example.lms.dto.LoanEventDTO;
+import com.example.lms.entity.LoanEvent;
+import org.springframework.stereotype.Component;
+
+/**
+ * Plain field-by-field mapping from {@link LoanEvent} to {@link LoanEventDTO}.
+ */
+@Component
+public class LoanEventMapper {
+
+    public LoanEventDTO toDto(LoanEvent event) {
+        return new LoanEventDTO(event.getId(), event.getType(), event.getBookId(), event.getBorrowerId(), event.getIsbn(),
+                event.getOccurredAt(), event.getDueAt());
+    }
+}
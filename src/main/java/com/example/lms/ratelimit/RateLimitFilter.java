@@ -0,0 +1,122 @@
+package com.example.lms.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rate-limits borrowing and registration before the request reaches a controller or the database. Every limited
+ * request takes a token from the bucket of its client address; a borrow also takes one from the bucket of the
+ * borrower in its path, so one borrower cannot hog several kiosks. A request finding either bucket empty gets
+ * {@code 429 Too Many Requests} with a {@code Retry-After} of the seconds until it would have been let through, and
+ * is charged nothing: a borrow the borrower's bucket rejects gets its client token back.
+ * <p>
+ * The client address is {@link HttpServletRequest#getRemoteAddr()}; behind a proxy, set
+ * {@code server.forward-headers-strategy} so that it is the caller's rather than the proxy's.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    private static final String BORROWER_ID = "borrowerId";
+    private static final List<PathPattern> BORROW = List.of(
+            PathPatternParser.defaultInstance.parse("/api/borrowers/{borrowerId}/borrow/{bookId}"),
+            PathPatternParser.defaultInstance.parse("/api/borrowers/{borrowerId}/borrow"));
+    private static final List<PathPattern> REGISTRATION = List.of(
+            PathPatternParser.defaultInstance.parse("/api/books"),
+            PathPatternParser.defaultInstance.parse("/api/books/batch"),
+            PathPatternParser.defaultInstance.parse("/api/borrowers"));
+
+    private final TokenBuckets clients;
+    private final TokenBuckets borrowers;
+    private final Counter clientRejections;
+    private final Counter borrowerRejections;
+
+    public RateLimitFilter(TokenBuckets clients, TokenBuckets borrowers, MeterRegistry meterRegistry) {
+        this.clients = clients;
+        this.borrowers = borrowers;
+        this.clientRejections = Counter.builder("lms.ratelimit.rejected")
+                .description("Requests rejected with 429 Too Many Requests")
+                .tag("limit", "client")
+                .register(meterRegistry);
+        this.borrowerRejections = Counter.builder("lms.ratelimit.rejected")
+                .description("Requests rejected with 429 Too Many Requests")
+                .tag("limit", "borrower")
+                .register(meterRegistry);
+        Gauge.builder("lms.ratelimit.buckets", clients, TokenBuckets::size)
+                .description("Token buckets held in memory")
+                .tag("limit", "client")
+                .register(meterRegistry);
+        Gauge.builder("lms.ratelimit.buckets", borrowers, TokenBuckets::size)
+                .description("Token buckets held in memory")
+                .tag("limit", "borrower")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.POST.matches(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        PathContainer path = PathContainer.parsePath(request.getRequestURI().substring(request.getContextPath().length()));
+        PathPattern.PathMatchInfo borrow = BORROW.stream()
+                .map(pattern -> pattern.matchAndExtract(path))
+                .filter(Objects::nonNull)
+                .findFirst()
+                .orElse(null);
+        if (borrow == null && REGISTRATION.stream().noneMatch(pattern -> pattern.matches(path))) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long now = System.nanoTime();
+        long wait = clients.tryTake(request.getRemoteAddr(), now);
+        if (wait > 0) {
+            clientRejections.increment();
+            reject(response, wait, "client " + request.getRemoteAddr());
+            return;
+        }
+        if (borrow != null) {
+            String borrowerId = borrow.getUriVariables().get(BORROWER_ID);
+            wait = borrowers.tryTake(borrowerId, now);
+            if (wait > 0) {
+                clients.giveBack(request.getRemoteAddr());
+                borrowerRejections.increment();
+                reject(response, wait, "borrower " + borrowerId);
+                return;
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private static void reject(HttpServletResponse response, long waitNanos, String limited) throws IOException {
+        long retryAfter = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        logger.debug("Rate limit exceeded by {}; retry after {}s", limited, retryAfter);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter));
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.getWriter().write("Too many requests");
+    }
+}
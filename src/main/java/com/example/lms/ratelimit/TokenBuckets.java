@@ -0,0 +1,69 @@
+package com.example.lms.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One token bucket per key, each holding up to {@code capacity} tokens and refilled at {@code refillRate} tokens a
+ * second. A bucket is stored as the time at which it would be full again (the generic cell rate algorithm), so
+ * taking a token is a compare-and-set on a single {@code AtomicLong} rather than a lock.
+ * <p>
+ * Buckets live in a size-bounded Caffeine cache. A bucket left alone for {@code capacity / refillRate} is full
+ * again, so it expires then and nothing is lost. Under size pressure an evicted key simply starts over with a full
+ * bucket.
+ */
+public final class TokenBuckets {
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final Cache<String, AtomicLong> buckets;
+
+    public TokenBuckets(long capacity, double refillRate, long maximumBuckets) {
+        if (capacity < 1 || refillRate <= 0 || maximumBuckets < 1) {
+            throw new IllegalArgumentException("Token bucket capacity, refill rate and maximum buckets must be positive");
+        }
+        this.intervalNanos = Math.max(1, (long) (1e9 / refillRate));
+        this.burstNanos = intervalNanos * capacity;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maximumBuckets)
+                .expireAfterAccess(Duration.ofNanos(burstNanos))
+                .build();
+    }
+
+    /**
+     * Takes a token from the key's bucket. Returns 0 if there was one, otherwise the nanoseconds until there is; no
+     * token is taken then.
+     */
+    public long tryTake(String key, long nowNanos) {
+        AtomicLong fullAt = buckets.get(key, k -> new AtomicLong(nowNanos));
+        while (true) {
+            long current = fullAt.get();
+            long next = (current - nowNanos > 0 ? current : nowNanos) + intervalNanos;
+            long wait = next - nowNanos - burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Puts back a token taken by {@link #tryTake}, for a request that another limit rejected after all. A bucket that
+     * has expired since is full already, and one that has refilled in between just stays full.
+     */
+    public void giveBack(String key) {
+        AtomicLong fullAt = buckets.getIfPresent(key);
+        if (fullAt != null) {
+            fullAt.addAndGet(-intervalNanos);
+        }
+    }
+
+    public long size() {
+        return buckets.estimatedSize();
+    }
+}
@@ -1,12 +1,173 @@
 package com.example.lms.repository;
 
 import com.example.lms.entity.Book;
+import com.example.lms.repository.projection.BookSummary;
+import com.example.lms.repository.projection.IsbnSummary;
+import com.example.lms.repository.projection.LoanDue;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface BookRepository extends JpaRepository<Book, Long> {
+    /**
+     * Query space of the single-copy loan updates. No entity is mapped to it, so Hibernate's bulk-update cleanup
+     * leaves every cache region alone.
+     */
+    String BOOK_LOAN_SPACE = "book_loan";
+
     List<Book> findByIsbn(String isbn);
+
+    Optional<Book> findFirstByIsbn(String isbn);
+
+    List<Book> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    /**
+     * Forward-only, read-only cursor over the whole catalog. Must be consumed inside a transaction
+     * and closed by the caller; on MySQL the fetch size only takes effect with {@code useCursorFetch=true}.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select b from Book b order by b.id")
+    Stream<Book> streamAllBy();
+
+    /**
+     * Streams one row per ISBN. Copies of an ISBN share title and author, so {@code min} just picks that value.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select b.isbn as isbn, min(b.title) as title, min(b.author) as author from Book b group by b.isbn")
+    Stream<IsbnSummary> streamIsbnSummaries();
+
+    /**
+     * Catalog search led by an exact ISBN: a range of {@code idx_book_isbn (isbn, id)} after {@code afterId}. Title and
+     * author are LIKE patterns using {@code !} as the escape character, {@code %} when absent, checked on that range.
+     */
+    @Query("select b.id as id, b.isbn as isbn, b.title as title, b.author as author from Book b " +
+            "where b.isbn = :isbn and b.id > :afterId " +
+            "and b.title like :title escape '!' " +
+            "and b.author like :author escape '!' " +
+            "order by b.id")
+    List<BookSummary> searchByIsbn(@Param("isbn") String isbn, @Param("afterId") Long afterId,
+                                   @Param("title") String titlePattern, @Param("author") String authorPattern, Limit limit);
+
+    /**
+     * Catalog search led by a title prefix, in {@code (title, id)} order after the given position: a range of
+     * {@code idx_book_title (title, id)}. Patterns as in {@link #searchByIsbn}; the title pattern ends in {@code %}.
+     */
+    @Query("select b.id as id, b.isbn as isbn, b.title as title, b.author as author from Book b " +
+            "where b.title like :title escape '!' " +
+            "and (b.title > :afterTitle or (b.title = :afterTitle and b.id > :afterId)) " +
+            "and b.author like :author escape '!' " +
+            "order by b.title, b.id")
+    List<BookSummary> searchByTitle(@Param("title") String titlePrefix, @Param("afterTitle") String afterTitle,
+                                    @Param("afterId") Long afterId, @Param("author") String authorPattern, Limit limit);
+
+    /**
+     * Catalog search led by an author prefix, in {@code (author, id)} order after the given position: a range of
+     * {@code idx_book_author (author, id)}. Patterns as in {@link #searchByIsbn}; the author pattern ends in {@code %}.
+     */
+    @Query("select b.id as id, b.isbn as isbn, b.title as title, b.author as author from Book b " +
+            "where b.author like :author escape '!' " +
+            "and (b.author > :afterAuthor or (b.author = :afterAuthor and b.id > :afterId)) " +
+            "and b.title like :title escape '!' " +
+            "order by b.author, b.id")
+    List<BookSummary> searchByAuthor(@Param("author") String authorPrefix, @Param("afterAuthor") String afterAuthor,
+                                     @Param("afterId") Long afterId, @Param("title") String titlePattern, Limit limit);
+
+    /**
+     * Substring search over title and author, which no index serves: walks the primary key after {@code afterId},
+     * checking every row until the page is full. Patterns as in {@link #searchByIsbn}.
+     */
+    @Query("select b.id as id, b.isbn as isbn, b.title as title, b.author as author from Book b " +
+            "where b.id > :afterId " +
+            "and b.title like :title escape '!' " +
+            "and b.author like :author escape '!' " +
+            "order by b.id")
+    List<BookSummary> searchContaining(@Param("afterId") Long afterId, @Param("title") String titlePattern,
+                                       @Param("author") String authorPattern, Limit limit);
+
+    /**
+     * Keyset page of the books currently lent to a borrower, served by {@code idx_book_borrower (borrower_id, id)}.
+     */
+    @Query("select b.id as id, b.isbn as isbn, b.title as title, b.author as author from Book b " +
+            "where b.borrower.id = :borrowerId and b.id > :afterId " +
+            "order by b.id")
+    List<BookSummary> findLoans(@Param("borrowerId") Long borrowerId, @Param("afterId") Long afterId, Limit limit);
+
+    long countByBorrowerId(Long borrowerId);
+
+    /**
+     * The book's version alone, to answer a conditional GET without loading and mapping the row.
+     */
+    @Query("select b.version from Book b where b.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    /**
+     * Lends the book to the borrower only if it is currently on the shelf and the borrower exists.
+     * Returns the number of rows updated: {@code 0} means the copy was taken, or one of the ids is unknown.
+     * Like every bulk update of a book, it increments the version itself; Hibernate only does that for entity updates.
+     * Native, and declared to touch the {@code book_loan} query space rather than {@code book}: Hibernate would evict
+     * the whole {@code book} cache region for any update of the table it knows about. The caller evicts the one
+     * changed copy instead, see {@link com.example.lms.cache.EntityCacheEvictor}.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = BOOK_LOAN_SPACE))
+    @Query(value = "update book set borrower_id = :borrowerId, loaned_at = :loanedAt, due_at = :dueAt, overdue = false, " +
+            "version = version + 1 " +
+            "where id = :bookId and borrower_id is null " +
+            "and exists (select 1 from borrower where id = :borrowerId)", nativeQuery = true)
+    int assignBorrowerIfAvailable(@Param("bookId") Long bookId, @Param("borrowerId") Long borrowerId,
+                                  @Param("loanedAt") Instant loanedAt, @Param("dueAt") Instant dueAt);
+
+    /**
+     * Puts the book back on the shelf only if it is currently lent to the given borrower. Leaves the cache to the
+     * caller, like {@link #assignBorrowerIfAvailable}.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = BOOK_LOAN_SPACE))
+    @Query(value = "update book set borrower_id = null, loaned_at = null, due_at = null, overdue = false, " +
+            "version = version + 1 " +
+            "where id = :bookId and borrower_id = :borrowerId", nativeQuery = true)
+    int releaseBorrower(@Param("bookId") Long bookId, @Param("borrowerId") Long borrowerId);
+
+    /**
+     * Loads copies from the database, bypassing the second-level cache, to change them under their version: the
+     * {@code UPDATE} Hibernate issues on flush only matches if nobody changed the row since it was read here.
+     * The fresh rows also replace whatever the cache held.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "REFRESH"))
+    @Query("select b from Book b where b.id in :ids")
+    List<Book> findAllCurrentById(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Copies of an ISBN that are on the shelf, read like {@link #findAllCurrentById} so one can be lent under its version.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "REFRESH"))
+    @Query("select b from Book b where b.isbn = :isbn and b.borrower is null order by b.id")
+    List<Book> findAvailableCopies(@Param("isbn") String isbn, Limit limit);
+
+    /**
+     * Keyset chunk of the loans due before {@code now} and not yet marked overdue, in {@code (dueAt, id)} order after
+     * the given position. A range scan of {@code idx_book_overdue (overdue, due_at, id)}; marked loans leave the range.
+     */
+    @Query("select b.id as id, b.dueAt as dueAt from Book b " +
+            "where b.overdue = false and b.dueAt < :now " +
+            "and (b.dueAt > :afterDue or (b.dueAt = :afterDue and b.id > :afterId)) " +
+            "order by b.dueAt, b.id")
+    List<LoanDue> findOverdueLoans(@Param("now") Instant now, @Param("afterDue") Instant afterDue,
+                                   @Param("afterId") Long afterId, Limit limit);
 }
@@ -1,10 +1,24 @@
 package com.example.lms.repository;
 
 import com.example.lms.entity.Borrower;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface BorrowerRepository extends JpaRepository<Borrower, Long> {
     boolean existsByEmail(String email);
+
+    List<Borrower> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    /**
+     * The borrower's version alone, to answer a conditional GET without loading and mapping the row.
+     */
+    @Query("select b.version from Borrower b where b.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
 }
@@ -0,0 +1,32 @@
+package com.example.lms.repository;
+
+import com.example.lms.entity.CollectionVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+@Repository
+public interface CollectionVersionRepository extends JpaRepository<CollectionVersion, String> {
+
+    /**
+     * Marks the collection as changed. Must run in the transaction that changes it, so a reader never sees the
+     * new version together with the old rows. The stripes are created at startup; the insert is only a fallback.
+     */
+    default void bump(String collection) {
+        String id = CollectionVersion.stripeId(collection, ThreadLocalRandom.current().nextInt(CollectionVersion.STRIPES));
+        if (increment(id) == 0) {
+            save(new CollectionVersion(id, collection, 1));
+        }
+    }
+
+    @Modifying
+    @Query("update CollectionVersion c set c.version = c.version + 1 where c.id = :id")
+    int increment(@Param("id") String id);
+
+    @Query("select coalesce(sum(c.version), 0) from CollectionVersion c where c.collection = :collection")
+    long currentVersion(@Param("collection") String collection);
+}
@@ -0,0 +1,34 @@
+package com.example.lms.repository;
+
+import com.example.lms.entity.Hold;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface HoldRepository extends JpaRepository<Hold, Long> {
+    boolean existsByIsbnAndBorrowerId(String isbn, Long borrowerId);
+
+    boolean existsByIsbn(String isbn);
+
+    /**
+     * Holds of the ISBN placed before the given one, read from {@code idx_book_hold_isbn (isbn, id)}: the hold's
+     * place in the queue, less one.
+     */
+    long countByIsbnAndIdLessThan(String isbn, Long id);
+
+    List<Hold> findByBorrowerIdOrderByIdAsc(Long borrowerId);
+
+    List<Hold> findByIsbnOrderByIdAsc(String isbn);
+
+    /**
+     * The head of the ISBN's queue, the first row of {@code idx_book_hold_isbn (isbn, id)}, locked for update until
+     * the transaction ends.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Hold> findFirstByIsbnOrderByIdAsc(String isbn);
+}
@@ -0,0 +1,54 @@
+package com.example.lms.repository;
+
+import com.example.lms.entity.IsbnAvailability;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface IsbnAvailabilityRepository extends JpaRepository<IsbnAvailability, String> {
+
+    /**
+     * Adds newly registered copies to the counters of an ISBN, creating its row on the first copy. A single upsert,
+     * so two transactions registering the first copies of an ISBN at once both end up counted.
+     * Must run in the transaction that inserts the copies. Declares the one table it writes; a native update without
+     * one would evict every second-level cache region, {@code book} and {@code borrower} included.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "isbn_availability"))
+    @Query(value = "insert into isbn_availability (isbn, total, available) values (:isbn, :copies, :available) " +
+            "on duplicate key update total = total + :copies, available = available + :available", nativeQuery = true)
+    int addCopies(@Param("isbn") String isbn, @Param("copies") long copies, @Param("available") long available);
+
+    /**
+     * Reads the counters of an ISBN under the write lock {@link #adjustAvailableForIsbn} takes, held until the
+     * transaction ends. Placing a hold and claiming one both start here, so a copy coming back and a borrower joining
+     * the queue cannot miss each other.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<IsbnAvailability> findLockedByIsbn(String isbn);
+
+    /**
+     * Adjusts the available count of an ISBN: negative on loan, positive on return.
+     */
+    @Modifying
+    @Query("update IsbnAvailability a set a.available = a.available + :delta where a.isbn = :isbn")
+    int adjustAvailableForIsbn(@Param("isbn") String isbn, @Param("delta") long delta);
+
+    /**
+     * Computes the counters of every ISBN from {@code book}. Only meant for an empty table.
+     */
+    @Modifying
+    @Query("insert into IsbnAvailability (isbn, total, available) " +
+            "select b.isbn, count(b), sum(case when b.borrower is null then 1 else 0 end) from Book b group by b.isbn")
+    int backfill();
+}
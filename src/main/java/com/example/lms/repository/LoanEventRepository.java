@@ -0,0 +1,38 @@
+package com.example.lms.repository;
+
+import com.example.lms.entity.LoanEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Insert-only access to the loan ledger: there is no update or delete method to call.
+ */
+@org.springframework.stereotype.Repository
+public interface LoanEventRepository extends Repository<LoanEvent, Long> {
+    LoanEvent save(LoanEvent event);
+
+    /**
+     * Keyset page of a book's events in {@code (occurredAt, id)} order after the given position, served by
+     * {@code idx_loan_event_book_time (book_id, occurred_at, id)}.
+     */
+    @Query("select e from LoanEvent e where e.bookId = :bookId " +
+            "and (e.occurredAt > :afterAt or (e.occurredAt = :afterAt and e.id > :afterId)) " +
+            "order by e.occurredAt, e.id")
+    List<LoanEvent> findBookHistory(@Param("bookId") Long bookId, @Param("afterAt") Instant afterAt,
+                                    @Param("afterId") Long afterId, Limit limit);
+
+    /**
+     * Keyset page of a borrower's events, like {@link #findBookHistory}, served by
+     * {@code idx_loan_event_borrower_time (borrower_id, occurred_at, id)}.
+     */
+    @Query("select e from LoanEvent e where e.borrowerId = :borrowerId " +
+            "and (e.occurredAt > :afterAt or (e.occurredAt = :afterAt and e.id > :afterId)) " +
+            "order by e.occurredAt, e.id")
+    List<LoanEvent> findBorrowerHistory(@Param("borrowerId") Long borrowerId, @Param("afterAt") Instant afterAt,
+                                        @Param("afterId") Long afterId, Limit limit);
+}
@@ -0,0 +1,14 @@
+package com.example.lms.repository.projection;
+
+/**
+ * Closed projection of the catalog columns served by search, read without loading {@code Book} entities.
+ */
+public interface BookSummary {
+    Long getId();
+
+    String getIsbn();
+
+    String getTitle();
+
+    String getAuthor();
+}
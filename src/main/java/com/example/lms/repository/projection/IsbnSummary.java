@@ -0,0 +1,12 @@
+package com.example.lms.repository.projection;
+
+/**
+ * One row per ISBN with its title and author, used to build the catalog search index.
+ */
+public interface IsbnSummary {
+    String getIsbn();
+
+    String getTitle();
+
+    String getAuthor();
+}
@@ -0,0 +1,12 @@
+package com.example.lms.repository.projection;
+
+import java.time.Instant;
+
+/**
+ * Keyset position of a loan in the overdue scan.
+ */
+public interface LoanDue {
+    Long getId();
+
+    Instant getDueAt();
+}
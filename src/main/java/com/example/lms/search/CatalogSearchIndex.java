@@ -0,0 +1,249 @@
+package com.example.lms.search;
+
+import com.example.lms.dto.BookSearchHitDTO;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over the titles and authors of the catalog, one document per ISBN.
+ * <p>
+ * Every word is indexed both as a whole token and as boundary-padded trigrams, with posting lists kept as
+ * primitive int arrays. A query scores each candidate by exact token matches plus the share of each query
+ * word's trigrams it contains, which ranks exact matches first while still finding misspelled words.
+ * <p>
+ * The index stops accepting new ISBNs once its estimated footprint would exceed {@code lms.search.memory-budget};
+ * search then covers only the ISBNs indexed so far.
+ */
+@Component
+public class CatalogSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogSearchIndex.class);
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+    private static final String TOKEN_TERM = "t:";
+    private static final String GRAM_TERM = "g:";
+    private static final float EXACT_TOKEN_SCORE = 1.0f;
+    private static final float MIN_SCORE_PER_QUERY_TOKEN = 0.3f;
+    // Rough per-entry costs on a 64-bit JVM with compressed oops: map entry, key string and posting list headers.
+    private static final long TERM_OVERHEAD_BYTES = 120;
+    private static final long DOCUMENT_OVERHEAD_BYTES = 160;
+
+    private final long memoryBudgetBytes;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, IntList> postings = new HashMap<>();
+    private final Map<String, Integer> documentsByIsbn = new HashMap<>();
+    private String[] isbns = new String[1024];
+    private String[] titles = new String[1024];
+    private String[] authors = new String[1024];
+    private int documentCount;
+    private long estimatedBytes;
+    private boolean full;
+
+    public CatalogSearchIndex(@Value("${lms.search.memory-budget:64MB}") DataSize memoryBudget, MeterRegistry meterRegistry) {
+        this.memoryBudgetBytes = memoryBudget.toBytes();
+        Gauge.builder("lms.search.index.documents", this, CatalogSearchIndex::documentCount)
+                .description("ISBNs in the catalog search index")
+                .register(meterRegistry);
+        Gauge.builder("lms.search.index.terms", this, CatalogSearchIndex::termCount)
+                .description("Distinct tokens and trigrams in the catalog search index")
+                .register(meterRegistry);
+        Gauge.builder("lms.search.index.estimated.bytes", this, CatalogSearchIndex::estimatedBytes)
+                .description("Estimated heap used by the catalog search index")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Indexes an ISBN. Returns {@code false} if it is already indexed or the memory budget is exhausted.
+     */
+    public boolean add(String isbn, String title, String author) {
+        lock.writeLock().lock();
+        try {
+            if (documentsByIsbn.containsKey(isbn)) {
+                return false;
+            }
+            Set<String> terms = termsOf(title + " " + author);
+            long cost = DOCUMENT_OVERHEAD_BYTES + 2L * (isbn.length() + title.length() + author.length());
+            for (String term : terms) {
+                cost += Integer.BYTES + (postings.containsKey(term) ? 0 : TERM_OVERHEAD_BYTES + 2L * term.length());
+            }
+            if (estimatedBytes + cost > memoryBudgetBytes) {
+                if (!full) {
+                    full = true;
+                    logger.warn("Catalog search index reached its memory budget of {} bytes with {} ISBNs; further ISBNs are not searchable",
+                            memoryBudgetBytes, documentCount);
+                }
+                return false;
+            }
+
+            int document = documentCount++;
+            if (document == isbns.length) {
+                int capacity = isbns.length * 2;
+                isbns = Arrays.copyOf(isbns, capacity);
+                titles = Arrays.copyOf(titles, capacity);
+                authors = Arrays.copyOf(authors, capacity);
+            }
+            isbns[document] = isbn;
+            titles[document] = title;
+            authors[document] = author;
+            documentsByIsbn.put(isbn, document);
+            for (String term : terms) {
+                postings.computeIfAbsent(term, key -> new IntList()).add(document);
+            }
+            estimatedBytes += cost;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} ISBNs matching the query, best match first.
+     */
+    public List<BookSearchHitDTO> search(String query, int limit) {
+        Set<String> queryTokens = tokenize(query);
+        if (queryTokens.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            List<IntList> lists = new ArrayList<>();
+            List<Float> weights = new ArrayList<>();
+            int candidates = 0;
+            for (String token : queryTokens) {
+                candidates += collect(TOKEN_TERM + token, EXACT_TOKEN_SCORE, lists, weights);
+                List<String> grams = trigrams(token);
+                for (String gram : grams) {
+                    candidates += collect(GRAM_TERM + gram, 1.0f / grams.size(), lists, weights);
+                }
+            }
+
+            ScoreAccumulator scores = new ScoreAccumulator(Math.min(candidates, documentCount));
+            for (int i = 0; i < lists.size(); i++) {
+                IntList list = lists.get(i);
+                float weight = weights.get(i);
+                for (int j = 0; j < list.size(); j++) {
+                    scores.add(list.get(j), weight);
+                }
+            }
+            return topHits(scores, MIN_SCORE_PER_QUERY_TOKEN * queryTokens.size(), limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int documentCount() {
+        lock.readLock().lock();
+        try {
+            return documentCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int termCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private long estimatedBytes() {
+        lock.readLock().lock();
+        try {
+            return estimatedBytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int collect(String term, float weight, List<IntList> lists, List<Float> weights) {
+        IntList list = postings.get(term);
+        if (list == null) {
+            return 0;
+        }
+        lists.add(list);
+        weights.add(weight);
+        return list.size();
+    }
+
+    private List<BookSearchHitDTO> topHits(ScoreAccumulator scores, float minScore, int limit) {
+        PriorityQueue<BookSearchHitDTO> top = new PriorityQueue<>(limit, Comparator.comparingDouble(BookSearchHitDTO::getScore));
+        for (int slot = 0; slot < scores.capacity(); slot++) {
+            int document = scores.documentAt(slot);
+            float score = scores.scoreAt(slot);
+            if (document < 0 || score < minScore) {
+                continue;
+            }
+            if (top.size() < limit) {
+                top.add(hit(document, score));
+            } else if (score > top.peek().getScore()) {
+                top.poll();
+                top.add(hit(document, score));
+            }
+        }
+        List<BookSearchHitDTO> hits = new ArrayList<>(top);
+        hits.sort(Comparator.comparingDouble(BookSearchHitDTO::getScore).reversed());
+        return hits;
+    }
+
+    private BookSearchHitDTO hit(int document, float score) {
+        return new BookSearchHitDTO(isbns[document], titles[document], authors[document], score);
+    }
+
+    private static Set<String> termsOf(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        for (String token : tokenize(text)) {
+            terms.add(TOKEN_TERM + token);
+            for (String gram : trigrams(token)) {
+                terms.add(GRAM_TERM + gram);
+            }
+        }
+        return terms;
+    }
+
+    static Set<String> tokenize(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String token : NON_WORD.split(text.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Trigrams of the token padded with {@code ^} and {@code $}, so word starts and ends carry their own grams.
+     */
+    static List<String> trigrams(String token) {
+        String padded = "^" + token + "$";
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return new ArrayList<>(grams);
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.lms.search;
+
+import com.example.lms.repository.BookRepository;
+import com.example.lms.repository.projection.IsbnSummary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.stream.Stream;
+
+/**
+ * Fills the catalog search index from the database once the application has started.
+ */
+@Component
+@ConditionalOnProperty(name = "lms.search.index.enabled", havingValue = "true", matchIfMissing = true)
+public class CatalogSearchIndexInitializer {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogSearchIndexInitializer.class);
+
+    private final BookRepository bookRepository;
+    private final CatalogSearchIndex catalogSearchIndex;
+
+    public CatalogSearchIndexInitializer(BookRepository bookRepository, CatalogSearchIndex catalogSearchIndex) {
+        this.bookRepository = bookRepository;
+        this.catalogSearchIndex = catalogSearchIndex;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void buildIndex() {
+        long started = System.nanoTime();
+        try (Stream<IsbnSummary> summaries = bookRepository.streamIsbnSummaries()) {
+            summaries.forEach(summary -> catalogSearchIndex.add(summary.getIsbn(), summary.getTitle(), summary.getAuthor()));
+        }
+        logger.info("Catalog search index built with {} ISBNs in {} ms",
+                catalogSearchIndex.documentCount(), (System.nanoTime() - started) / 1_000_000);
+    }
+}
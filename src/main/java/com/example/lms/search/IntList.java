@@ -0,0 +1,27 @@
+package com.example.lms.search;
+
+import java.util.Arrays;
+
+/**
+ * Growable posting list of document ids kept as a primitive array, in insertion (and therefore ascending) order.
+ */
+final class IntList {
+
+    private int[] values = new int[4];
+    private int size;
+
+    void add(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size + (size >> 1) + 1);
+        }
+        values[size++] = value;
+    }
+
+    int get(int index) {
+        return values[index];
+    }
+
+    int size() {
+        return size;
+    }
+}
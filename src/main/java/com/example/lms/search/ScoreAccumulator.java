@@ -0,0 +1,72 @@
+package com.example.lms.search;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing map from document id to score, sized to the candidates of one query rather than the whole index.
+ */
+final class ScoreAccumulator {
+
+    private static final int EMPTY = -1;
+
+    private int[] documents;
+    private float[] scores;
+    private int size;
+
+    ScoreAccumulator(int expectedCandidates) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedCandidates * 2) - 1) << 1;
+        documents = new int[capacity];
+        scores = new float[capacity];
+        Arrays.fill(documents, EMPTY);
+    }
+
+    void add(int document, float score) {
+        int mask = documents.length - 1;
+        int slot = mix(document) & mask;
+        while (documents[slot] != EMPTY && documents[slot] != document) {
+            slot = (slot + 1) & mask;
+        }
+        if (documents[slot] == EMPTY) {
+            documents[slot] = document;
+            size++;
+        }
+        scores[slot] += score;
+        if (size * 2 > documents.length) {
+            grow();
+        }
+    }
+
+    int capacity() {
+        return documents.length;
+    }
+
+    /**
+     * Document stored in the given slot, or {@code -1} for an empty slot.
+     */
+    int documentAt(int slot) {
+        return documents[slot];
+    }
+
+    float scoreAt(int slot) {
+        return scores[slot];
+    }
+
+    private void grow() {
+        int[] oldDocuments = documents;
+        float[] oldScores = scores;
+        documents = new int[oldDocuments.length * 2];
+        scores = new float[oldScores.length * 2];
+        Arrays.fill(documents, EMPTY);
+        size = 0;
+        for (int i = 0; i < oldDocuments.length; i++) {
+            if (oldDocuments[i] != EMPTY) {
+                add(oldDocuments[i], oldScores[i]);
+            }
+        }
+    }
+
+    private static int mix(int value) {
+        int h = value * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -1,11 +1,28 @@
 package com.example.lms.service;
 
+import com.example.lms.dto.BookBatchResultDTO;
 import com.example.lms.dto.BookDTO;
+import com.example.lms.dto.BookSearchHitDTO;
+import com.example.lms.dto.CursorPage;
+import com.example.lms.dto.IsbnAvailabilityDTO;
+import com.example.lms.dto.LoanEventDTO;
+import com.example.lms.dto.SearchMatch;
+import com.example.lms.repository.projection.BookSummary;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface BookService {
     BookDTO registerBook(BookDTO bookDTO);
+    List<BookBatchResultDTO> registerBooks(List<BookDTO> bookDTOs);
     List<BookDTO> getAllBooks();
+    CursorPage<BookDTO> getBooks(String after, int limit);
+    void exportBooks(Consumer<BookDTO> consumer);
+    CursorPage<BookSummary> searchBooks(String isbn, String title, String author, SearchMatch match, String after, int limit);
+    List<BookSearchHitDTO> searchCatalog(String query, int limit);
+    IsbnAvailabilityDTO getAvailability(String isbn);
+    CursorPage<LoanEventDTO> getHistory(Long bookId, String after, int limit);
+    long getCatalogVersion();
+    long getBookVersion(Long bookId);
 
     BookDTO getBookById(Long bookId);
 }
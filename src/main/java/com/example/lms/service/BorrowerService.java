@@ -1,13 +1,26 @@
 package com.example.lms.service;
 
 import com.example.lms.dto.BorrowerDTO;
+import com.example.lms.dto.BorrowerLoansDTO;
+import com.example.lms.dto.CursorPage;
+import com.example.lms.dto.LoanBatchRequestDTO;
+import com.example.lms.dto.LoanBatchResultDTO;
+import com.example.lms.dto.LoanEventDTO;
 import java.util.List;
 
 public interface BorrowerService {
     BorrowerDTO registerBorrower(BorrowerDTO borrowerDTO);
     void borrowBook(Long borrowerId, Long bookId);
     void returnBook(Long borrowerId, Long bookId);
+    List<LoanBatchResultDTO> borrowBooks(Long borrowerId, LoanBatchRequestDTO request);
+    List<LoanBatchResultDTO> returnBooks(Long borrowerId, LoanBatchRequestDTO request);
     List<BorrowerDTO> getAllBorrowers();
+    CursorPage<BorrowerDTO> getBorrowers(String after, int limit);
+    BorrowerLoansDTO getLoans(Long borrowerId, String after, int limit);
+    CursorPage<LoanEventDTO> getHistory(Long borrowerId, String after, int limit);
+    long getBorrowersVersion();
+    long getLoansVersion();
+    long getBorrowerVersion(Long borrowerId);
 
     BorrowerDTO getBorrowerById(Long borrowerId);
 }
\ No newline at end of file
@@ -0,0 +1,12 @@
+package com.example.lms.service;
+
+import com.example.lms.dto.HoldDTO;
+
+import java.util.List;
+
+public interface HoldService {
+    HoldDTO placeHold(Long borrowerId, String isbn);
+    void cancelHold(Long borrowerId, Long holdId);
+    List<HoldDTO> getHoldsOfBorrower(Long borrowerId);
+    List<HoldDTO> getHoldsOfIsbn(String isbn);
+}
@@ -1,69 +1,365 @@
 package com.example.lms.service.impl;
 
+import com.example.lms.cache.IsbnMetadata;
+import com.example.lms.cache.IsbnMetadataCache;
+import com.example.lms.dto.BookBatchResultDTO;
 import com.example.lms.dto.BookDTO;
+import com.example.lms.dto.BookSearchHitDTO;
+import com.example.lms.dto.CursorPage;
+import com.example.lms.dto.IsbnAvailabilityDTO;
+import com.example.lms.dto.LoanEventDTO;
+import com.example.lms.dto.SearchMatch;
 import com.example.lms.entity.Book;
 import com.example.lms.entity.Borrower;
+import com.example.lms.entity.CollectionVersion;
+import com.example.lms.entity.Hold;
+import com.example.lms.entity.LoanEvent;
 import com.example.lms.exception.ResourceNotFoundException;
+import com.example.lms.hold.HoldDispatcher;
+import com.example.lms.loan.LoanPolicy;
+import com.example.lms.mapper.BookMapper;
+import com.example.lms.mapper.LoanEventMapper;
 import com.example.lms.repository.BookRepository;
 import com.example.lms.repository.BorrowerRepository;
+import com.example.lms.repository.CollectionVersionRepository;
+import com.example.lms.repository.IsbnAvailabilityRepository;
+import com.example.lms.repository.LoanEventRepository;
+import com.example.lms.repository.projection.BookSummary;
+import com.example.lms.search.CatalogSearchIndex;
 import com.example.lms.service.BookService;
-import org.modelmapper.ModelMapper;
+import com.example.lms.stats.BorrowStats;
+import com.example.lms.util.CursorUtil;
+import com.example.lms.util.TransactionUtil;
+import jakarta.persistence.EntityManager;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class BookServiceImpl implements BookService {
 
+    private static final int EXPORT_CLEAR_INTERVAL = 1_000;
+    private static final int MAX_BATCH_SIZE = 1_000;
+    private static final String MATCH_ALL = "%";
+    private static final String INCONSISTENT_ISBN = "Books with the same ISBN must have the same title and author";
+
     private final BookRepository bookRepository;
-    private final ModelMapper modelMapper;
+    private final BookMapper bookMapper;
     private final BorrowerRepository borrowerRepository;
+    private final EntityManager entityManager;
+    private final IsbnMetadataCache isbnMetadataCache;
+    private final CatalogSearchIndex catalogSearchIndex;
+    private final IsbnAvailabilityRepository isbnAvailabilityRepository;
+    private final CollectionVersionRepository collectionVersionRepository;
+    private final LoanPolicy loanPolicy;
+    private final LoanEventRepository loanEventRepository;
+    private final LoanEventMapper loanEventMapper;
+    private final HoldDispatcher holdDispatcher;
+    private final BorrowStats borrowStats;
 
     @Autowired
-    public BookServiceImpl(BookRepository bookRepository, ModelMapper modelMapper, BorrowerRepository borrowerRepository) {
+    public BookServiceImpl(BookRepository bookRepository, BookMapper bookMapper, BorrowerRepository borrowerRepository,
+                           EntityManager entityManager, IsbnMetadataCache isbnMetadataCache,
+                           CatalogSearchIndex catalogSearchIndex, IsbnAvailabilityRepository isbnAvailabilityRepository,
+                           CollectionVersionRepository collectionVersionRepository, LoanPolicy loanPolicy,
+                           LoanEventRepository loanEventRepository, LoanEventMapper loanEventMapper,
+                           HoldDispatcher holdDispatcher, BorrowStats borrowStats) {
         this.bookRepository = bookRepository;
-        this.modelMapper = modelMapper;
+        this.bookMapper = bookMapper;
         this.borrowerRepository = borrowerRepository;
+        this.entityManager = entityManager;
+        this.isbnMetadataCache = isbnMetadataCache;
+        this.catalogSearchIndex = catalogSearchIndex;
+        this.isbnAvailabilityRepository = isbnAvailabilityRepository;
+        this.collectionVersionRepository = collectionVersionRepository;
+        this.loanPolicy = loanPolicy;
+        this.loanEventRepository = loanEventRepository;
+        this.loanEventMapper = loanEventMapper;
+        this.holdDispatcher = holdDispatcher;
+        this.borrowStats = borrowStats;
     }
 
+    @Override
+    @Transactional
     public BookDTO registerBook(BookDTO bookDTO) {
         validateBook(bookDTO);
 
-        Book book = modelMapper.map(bookDTO, Book.class);
+        Book book = bookMapper.toEntity(bookDTO);
+        book.setId(null);
         if (bookDTO.getBorrowerId() != null && bookDTO.getBorrowerId() != 0) {
             Borrower borrower = borrowerRepository.findById(bookDTO.getBorrowerId())
                     .orElseThrow(() -> new ResourceNotFoundException("Borrower not found"));
-            book.setBorrower(borrower);
+            Instant now = Instant.now();
+            book.lendTo(borrower, now, loanPolicy.dueAt(now));
         } else {
-            book.setBorrower(null);
+            serveHold(book, Instant.now());
         }
 
         Book savedBook = bookRepository.save(book);
-        return modelMapper.map(savedBook, BookDTO.class);
+        recordLoan(savedBook);
+        isbnAvailabilityRepository.addCopies(savedBook.getIsbn(), 1, savedBook.isAlreadyBorrowed() ? 0 : 1);
+        collectionVersionRepository.bump(CollectionVersion.BOOKS);
+        registerMetadata(savedBook);
+        return bookMapper.toDto(savedBook);
+    }
+
+    /**
+     * Lends a new copy to the first borrower waiting for its ISBN, as a return would, instead of shelving it while
+     * somebody is queued.
+     */
+    private void serveHold(Book book, Instant now) {
+        Hold hold = holdDispatcher.claimNext(book.getIsbn());
+        if (hold != null) {
+            book.lendTo(hold.getBorrower(), now, loanPolicy.dueAt(now));
+            TransactionUtil.afterCommit(() -> borrowStats.recordBorrow(book.getIsbn(), book.getTitle(), book.getAuthor()));
+        }
+    }
+
+    private void recordLoan(Book book) {
+        if (book.isAlreadyBorrowed()) {
+            loanEventRepository.save(LoanEvent.borrowed(book, BookMapper.borrowerIdOf(book)));
+        }
+    }
+
+    private void registerMetadata(Book book) {
+        isbnMetadataCache.put(book.getIsbn(), book.getTitle(), book.getAuthor());
+        TransactionUtil.afterCommit(() -> catalogSearchIndex.add(book.getIsbn(), book.getTitle(), book.getAuthor()));
     }
 
     private void validateBook(BookDTO bookDTO) {
-        List<Book> existingBooks = bookRepository.findByIsbn(bookDTO.getIsbn());
-        for (Book existingBook : existingBooks) {
-            if (!existingBook.getTitle().equals(bookDTO.getTitle()) ||
-                    !existingBook.getAuthor().equals(bookDTO.getAuthor())) {
-                throw new IllegalArgumentException("Books with the same ISBN must have the same title and author");
+        isbnMetadataCache.get(bookDTO.getIsbn()).ifPresent(canonical -> {
+            if (!canonical.matches(bookDTO.getTitle(), bookDTO.getAuthor())) {
+                throw new IllegalArgumentException(INCONSISTENT_ISBN);
+            }
+        });
+    }
+
+    @Override
+    @Transactional
+    public List<BookBatchResultDTO> registerBooks(List<BookDTO> bookDTOs) {
+        if (bookDTOs.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("A batch may contain at most " + MAX_BATCH_SIZE + " books");
+        }
+
+        // One metadata lookup per distinct ISBN and a single query for all referenced borrowers.
+        Map<String, Optional<IsbnMetadata>> canonicalByIsbn = new HashMap<>();
+        List<Long> borrowerIds = bookDTOs.stream()
+                .filter(this::hasBorrower)
+                .map(BookDTO::getBorrowerId)
+                .distinct()
+                .toList();
+        Map<Long, Borrower> borrowersById = borrowerRepository.findAllById(borrowerIds).stream()
+                .collect(Collectors.toMap(Borrower::getId, Function.identity()));
+
+        List<BookBatchResultDTO> results = new ArrayList<>(bookDTOs.size());
+        List<BookBatchResultDTO> accepted = new ArrayList<>();
+        List<Book> books = new ArrayList<>();
+        Instant now = Instant.now();
+        for (int index = 0; index < bookDTOs.size(); index++) {
+            BookDTO bookDTO = bookDTOs.get(index);
+            String error = validateBatchItem(bookDTO, canonicalByIsbn, borrowersById);
+            BookBatchResultDTO result = new BookBatchResultDTO(index, error == null, null, error);
+            results.add(result);
+            if (error != null) {
+                continue;
             }
+
+            Book book = bookMapper.toEntity(bookDTO);
+            book.setId(null);
+            if (hasBorrower(bookDTO)) {
+                book.lendTo(borrowersById.get(bookDTO.getBorrowerId()), now, loanPolicy.dueAt(now));
+            } else {
+                serveHold(book, now);
+            }
+            canonicalByIsbn.put(bookDTO.getIsbn(), Optional.of(new IsbnMetadata(book.getTitle(), book.getAuthor())));
+            books.add(book);
+            accepted.add(result);
+        }
+
+        // Ids come from the pooled book_seq generator, so the inserts are sent as JDBC batches at flush time.
+        List<Book> savedBooks = bookRepository.saveAll(books);
+        for (int i = 0; i < savedBooks.size(); i++) {
+            Book savedBook = savedBooks.get(i);
+            accepted.get(i).setBook(bookMapper.toDto(savedBook));
+            registerMetadata(savedBook);
+            recordLoan(savedBook);
+        }
+
+        // One counter update per ISBN, in a fixed order so concurrent batches lock the rows consistently.
+        Map<String, Long> copiesByIsbn = savedBooks.stream()
+                .collect(Collectors.groupingBy(Book::getIsbn, TreeMap::new, Collectors.counting()));
+        Map<String, Long> availableByIsbn = savedBooks.stream()
+                .filter(book -> !book.isAlreadyBorrowed())
+                .collect(Collectors.groupingBy(Book::getIsbn, Collectors.counting()));
+        copiesByIsbn.forEach((isbn, copies) ->
+                isbnAvailabilityRepository.addCopies(isbn, copies, availableByIsbn.getOrDefault(isbn, 0L)));
+        if (!savedBooks.isEmpty()) {
+            collectionVersionRepository.bump(CollectionVersion.BOOKS);
+        }
+        return results;
+    }
+
+    private String validateBatchItem(BookDTO bookDTO, Map<String, Optional<IsbnMetadata>> canonicalByIsbn,
+                                     Map<Long, Borrower> borrowersById) {
+        if (bookDTO.getIsbn() == null || bookDTO.getTitle() == null || bookDTO.getAuthor() == null) {
+            return "ISBN, title and author are required";
         }
+        Optional<IsbnMetadata> canonical = canonicalByIsbn.computeIfAbsent(bookDTO.getIsbn(), isbnMetadataCache::get);
+        if (canonical.isPresent() && !canonical.get().matches(bookDTO.getTitle(), bookDTO.getAuthor())) {
+            return INCONSISTENT_ISBN;
+        }
+        if (hasBorrower(bookDTO) && !borrowersById.containsKey(bookDTO.getBorrowerId())) {
+            return "Borrower not found";
+        }
+        return null;
+    }
+
+    private boolean hasBorrower(BookDTO bookDTO) {
+        return bookDTO.getBorrowerId() != null && !Objects.equals(bookDTO.getBorrowerId(), 0L);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<BookDTO> getAllBooks() {
         return bookRepository.findAll().stream()
-                .map(book -> modelMapper.map(book, BookDTO.class))
+                .map(bookMapper::toDto)
                 .toList();
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public CursorPage<BookDTO> getBooks(String after, int limit) {
+        int pageSize = CursorUtil.normalizeLimit(limit);
+        List<Book> books = bookRepository.findByIdGreaterThanOrderByIdAsc(CursorUtil.decode(after), Limit.of(pageSize + 1));
+        return CursorUtil.toPage(books, pageSize, Book::getId, bookMapper::toDto);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportBooks(Consumer<BookDTO> consumer) {
+        try (Stream<Book> books = bookRepository.streamAllBy()) {
+            Iterator<Book> iterator = books.iterator();
+            long exported = 0;
+            while (iterator.hasNext()) {
+                consumer.accept(bookMapper.toDto(iterator.next()));
+                // Detach what has been written so far; the persistence context would otherwise hold every row.
+                if (++exported % EXPORT_CLEAR_INTERVAL == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<BookSummary> searchBooks(String isbn, String title, String author, SearchMatch match,
+                                               String after, int limit) {
+        if (isBlank(isbn) && isBlank(title) && isBlank(author)) {
+            throw new IllegalArgumentException("At least one of isbn, title or author is required");
+        }
+        int pageSize = CursorUtil.normalizeLimit(limit);
+        Limit rows = Limit.of(pageSize + 1);
+        // The leading criterion picks the index the query walks; the others are checked on the rows it reads.
+        if (!isBlank(isbn)) {
+            List<BookSummary> books = bookRepository.searchByIsbn(isbn.trim(), CursorUtil.decode(after),
+                    likePattern(title, match), likePattern(author, match), rows);
+            return CursorUtil.toPage(books, pageSize, BookSummary::getId, Function.identity());
+        }
+        if (match == SearchMatch.CONTAINS) {
+            List<BookSummary> books = bookRepository.searchContaining(CursorUtil.decode(after),
+                    likePattern(title, match), likePattern(author, match), rows);
+            return CursorUtil.toPage(books, pageSize, BookSummary::getId, Function.identity());
+        }
+        CursorUtil.KeyedCursor cursor = CursorUtil.decodeKeyed(after);
+        if (!isBlank(title)) {
+            List<BookSummary> books = bookRepository.searchByTitle(likePattern(title, match), cursor.key(), cursor.id(),
+                    likePattern(author, match), rows);
+            return CursorUtil.toKeyedPage(books, pageSize, BookSummary::getTitle, BookSummary::getId, Function.identity());
+        }
+        List<BookSummary> books = bookRepository.searchByAuthor(likePattern(author, match), cursor.key(), cursor.id(),
+                likePattern(title, match), rows);
+        return CursorUtil.toKeyedPage(books, pageSize, BookSummary::getAuthor, BookSummary::getId, Function.identity());
+    }
+
+    @Override
+    public List<BookSearchHitDTO> searchCatalog(String query, int limit) {
+        if (isBlank(query)) {
+            throw new IllegalArgumentException("Search query is required");
+        }
+        return catalogSearchIndex.search(query, CursorUtil.normalizeLimit(limit));
+    }
+
+    private static String likePattern(String term, SearchMatch match) {
+        if (isBlank(term)) {
+            return MATCH_ALL;
+        }
+        String escaped = escapeLike(term.trim());
+        return match == SearchMatch.CONTAINS ? "%" + escaped + "%" : escaped + "%";
+    }
+
+    private static String escapeLike(String term) {
+        return term.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public IsbnAvailabilityDTO getAvailability(String isbn) {
+        return isbnAvailabilityRepository.findById(isbn)
+                .map(availability -> new IsbnAvailabilityDTO(availability.getIsbn(), availability.getTotal(), availability.getAvailable()))
+                .orElseThrow(() -> new ResourceNotFoundException("No copies registered with ISBN: " + isbn));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<LoanEventDTO> getHistory(Long bookId, String after, int limit) {
+        int pageSize = CursorUtil.normalizeLimit(limit);
+        CursorUtil.TimedCursor cursor = CursorUtil.decodeTimed(after);
+        if (!bookRepository.existsById(bookId)) {
+            throw new ResourceNotFoundException("Book not found with id: " + bookId);
+        }
+        List<LoanEvent> events = loanEventRepository.findBookHistory(bookId, cursor.at(), cursor.id(),
+                Limit.of(pageSize + 1));
+        return CursorUtil.toKeyedPage(events, pageSize, event -> event.getOccurredAt().toString(), LoanEvent::getId,
+                loanEventMapper::toDto);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long getCatalogVersion() {
+        return collectionVersionRepository.currentVersion(CollectionVersion.BOOKS);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long getBookVersion(Long bookId) {
+        return bookRepository.findVersionById(bookId)
+                .orElseThrow(() -> new ResourceNotFoundException("Book not found with id: " + bookId));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public BookDTO getBookById(Long bookId) {
         Book book = bookRepository.findById(bookId)
                 .orElseThrow(() -> new ResourceNotFoundException("Book not found with id: " + bookId));
-        return modelMapper.map(book, BookDTO.class);
+        return bookMapper.toDto(book);
     }
 }
\ No newline at end of file
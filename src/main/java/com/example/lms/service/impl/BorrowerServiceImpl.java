@@ -1,92 +1,356 @@
 package com.example.lms.service.impl;
 
+import com.example.lms.cache.EntityCacheEvictor;
 import com.example.lms.dto.BorrowerDTO;
+import com.example.lms.dto.BorrowerLoansDTO;
+import com.example.lms.dto.CursorPage;
+import com.example.lms.dto.LoanBatchMode;
+import com.example.lms.dto.LoanBatchRequestDTO;
+import com.example.lms.dto.LoanBatchResultDTO;
+import com.example.lms.dto.LoanEventDTO;
 import com.example.lms.entity.Book;
 import com.example.lms.entity.Borrower;
+import com.example.lms.entity.CollectionVersion;
+import com.example.lms.entity.Hold;
+import com.example.lms.entity.LoanEvent;
 import com.example.lms.exception.BookAlreadyBorrowedException;
 import com.example.lms.exception.BookNotBorrowedException;
 import com.example.lms.exception.DuplicateBorrowerEmailException;
+import com.example.lms.exception.LoanBatchRejectedException;
 import com.example.lms.exception.ResourceNotFoundException;
+import com.example.lms.hold.HoldDispatcher;
+import com.example.lms.loan.LoanPolicy;
+import com.example.lms.mapper.BookMapper;
+import com.example.lms.mapper.BorrowerMapper;
+import com.example.lms.mapper.LoanEventMapper;
 import com.example.lms.repository.BookRepository;
 import com.example.lms.repository.BorrowerRepository;
+import com.example.lms.repository.CollectionVersionRepository;
+import com.example.lms.repository.IsbnAvailabilityRepository;
+import com.example.lms.repository.LoanEventRepository;
+import com.example.lms.repository.projection.BookSummary;
+import com.example.lms.aspect.OptimisticRetry;
 import com.example.lms.service.BorrowerService;
-import org.modelmapper.ModelMapper;
+import com.example.lms.stats.BorrowStats;
+import com.example.lms.util.CursorUtil;
+import com.example.lms.util.TransactionUtil;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class BorrowerServiceImpl implements BorrowerService {
 
     private final BorrowerRepository borrowerRepository;
     private final BookRepository bookRepository;
-    private final ModelMapper modelMapper;
+    private final BorrowerMapper borrowerMapper;
+    private final IsbnAvailabilityRepository isbnAvailabilityRepository;
+    private final CollectionVersionRepository collectionVersionRepository;
+    private final HoldDispatcher holdDispatcher;
+    private final LoanPolicy loanPolicy;
+    private final LoanEventRepository loanEventRepository;
+    private final LoanEventMapper loanEventMapper;
+    private final BorrowStats borrowStats;
+    private final EntityCacheEvictor entityCacheEvictor;
     private static final String BORROWER_NOT_FOUND = "Borrower not found with id: ";
+    private static final String BOOK_NOT_FOUND = "Book not found with id: ";
+    private static final String ALREADY_BORROWED = "Book is already borrowed";
+    private static final String NOT_BORROWED = "Book was not borrowed by this borrower";
+    private static final int MAX_LOAN_BATCH_SIZE = 50;
 
     @Autowired
-    public BorrowerServiceImpl(BorrowerRepository borrowerRepository, BookRepository bookRepository, ModelMapper modelMapper) {
+    public BorrowerServiceImpl(BorrowerRepository borrowerRepository, BookRepository bookRepository, BorrowerMapper borrowerMapper,
+                               IsbnAvailabilityRepository isbnAvailabilityRepository,
+                               CollectionVersionRepository collectionVersionRepository,
+                               HoldDispatcher holdDispatcher, LoanPolicy loanPolicy,
+                               LoanEventRepository loanEventRepository, LoanEventMapper loanEventMapper,
+                               BorrowStats borrowStats, EntityCacheEvictor entityCacheEvictor) {
         this.borrowerRepository = borrowerRepository;
         this.bookRepository = bookRepository;
-        this.modelMapper = modelMapper;
+        this.borrowerMapper = borrowerMapper;
+        this.isbnAvailabilityRepository = isbnAvailabilityRepository;
+        this.collectionVersionRepository = collectionVersionRepository;
+        this.holdDispatcher = holdDispatcher;
+        this.loanPolicy = loanPolicy;
+        this.loanEventRepository = loanEventRepository;
+        this.loanEventMapper = loanEventMapper;
+        this.borrowStats = borrowStats;
+        this.entityCacheEvictor = entityCacheEvictor;
     }
 
     @Override
+    @Transactional
     public BorrowerDTO registerBorrower(BorrowerDTO borrowerDTO) {
         if (borrowerRepository.existsByEmail(borrowerDTO.getEmail())) {
             throw new DuplicateBorrowerEmailException("A borrower with this email already exists.");
         }
 
-        Borrower borrower = modelMapper.map(borrowerDTO, Borrower.class);
+        Borrower borrower = borrowerMapper.toEntity(borrowerDTO);
+        borrower.setId(null);
         Borrower savedBorrower = borrowerRepository.save(borrower);
-        return modelMapper.map(savedBorrower, BorrowerDTO.class);
+        collectionVersionRepository.bump(CollectionVersion.BORROWERS);
+        return borrowerMapper.toDto(savedBorrower);
     }
+    /**
+     * A single conditional UPDATE lends or returns the copy, so nothing is checked ahead of the write and nothing
+     * has to be retried; ids are only looked up to explain a failure. The copy is read first, through the entity
+     * cache, for the ISBN, title and author the ledger and the rankings need: they never change, so a cached copy
+     * is as good as the row. The update is native and invisible to Hibernate's cache cleanup, so only this copy is
+     * evicted from the {@code book} region.
+     */
     @Override
+    @Transactional
     public void borrowBook(Long borrowerId, Long bookId) {
+        Book book = findBook(borrowerId, bookId);
+        Instant now = Instant.now();
+        Instant dueAt = loanPolicy.dueAt(now);
+        if (bookRepository.assignBorrowerIfAvailable(bookId, borrowerId, now, dueAt) == 0) {
+            requireBorrower(borrowerId);
+            throw new BookAlreadyBorrowedException(ALREADY_BORROWED);
+        }
+        entityCacheEvictor.evictAfterUpdate(Book.class, bookId);
+        recordLoan(book, borrowerId, now, dueAt);
+        isbnAvailabilityRepository.adjustAvailableForIsbn(book.getIsbn(), -1);
+        collectionVersionRepository.bump(CollectionVersion.BOOKS);
+    }
 
-        Borrower borrower = borrowerRepository.findById(borrowerId)
-                .orElseThrow(() -> new ResourceNotFoundException(BORROWER_NOT_FOUND + borrowerId));
+    @Override
+    @Transactional
+    public void returnBook(Long borrowerId, Long bookId) {
+        Book book = findBook(borrowerId, bookId);
+        if (bookRepository.releaseBorrower(bookId, borrowerId) == 0) {
+            requireBorrower(borrowerId);
+            throw new BookNotBorrowedException(NOT_BORROWED);
+        }
+        entityCacheEvictor.evictAfterUpdate(Book.class, bookId);
+        Instant now = Instant.now();
+        loanEventRepository.save(LoanEvent.returned(book, borrowerId, now));
+        Hold hold = holdDispatcher.claimNext(book.getIsbn());
+        if (hold != null) {
+            // The copy is on the shelf and its row locked by this transaction, so the hand-over cannot miss; if it
+            // does, the whole return rolls back rather than drop the claimed hold.
+            Instant dueAt = loanPolicy.dueAt(now);
+            if (bookRepository.assignBorrowerIfAvailable(bookId, hold.getBorrower().getId(), now, dueAt) == 0) {
+                throw new IllegalStateException("Could not lend returned book " + bookId + " to hold " + hold.getId());
+            }
+            recordLoan(book, hold.getBorrower().getId(), now, dueAt);
+        } else {
+            isbnAvailabilityRepository.adjustAvailableForIsbn(book.getIsbn(), 1);
+        }
+        collectionVersionRepository.bump(CollectionVersion.BOOKS);
+    }
 
-        Book book = bookRepository.findById(bookId)
-                .orElseThrow(() -> new ResourceNotFoundException("Book not found with id: " + bookId));
+    private Book findBook(Long borrowerId, Long bookId) {
+        return bookRepository.findById(bookId)
+                .orElseThrow(() -> {
+                    requireBorrower(borrowerId);
+                    return new ResourceNotFoundException(BOOK_NOT_FOUND + bookId);
+                });
+    }
 
-        if (book.isAlreadyBorrowed()) {
-            throw new BookAlreadyBorrowedException("Book is already borrowed");
+    /**
+     * Batch form of a return: records it, then lends the copy to the first borrower queued for its ISBN, or puts
+     * it back on the shelf when nobody is.
+     *
+     * @return whether the copy became available
+     */
+    private boolean release(Book book, Instant now) {
+        loanEventRepository.save(LoanEvent.returned(book, BookMapper.borrowerIdOf(book), now));
+        Hold hold = holdDispatcher.claimNext(book.getIsbn());
+        if (hold != null) {
+            lend(book, hold.getBorrower(), now);
+            return false;
         }
+        book.shelve();
+        return true;
+    }
 
-        book.setBorrower(borrower);
+    private void lend(Book book, Borrower borrower, Instant now) {
+        book.lendTo(borrower, now, loanPolicy.dueAt(now));
+        recordLoan(book, borrower.getId(), book.getLoanedAt(), book.getDueAt());
+    }
 
-        bookRepository.save(book);
+    private void recordLoan(Book book, Long borrowerId, Instant loanedAt, Instant dueAt) {
+        loanEventRepository.save(LoanEvent.borrowed(book, borrowerId, loanedAt, dueAt));
+        TransactionUtil.afterCommit(() -> borrowStats.recordBorrow(book.getIsbn(), book.getTitle(), book.getAuthor()));
     }
 
     @Override
-    public void returnBook(Long borrowerId, Long bookId) {
+    @OptimisticRetry
+    @Transactional
+    public List<LoanBatchResultDTO> borrowBooks(Long borrowerId, LoanBatchRequestDTO request) {
+        return processLoanBatch(borrowerId, request, true);
+    }
+
+    @Override
+    @OptimisticRetry
+    @Transactional
+    public List<LoanBatchResultDTO> returnBooks(Long borrowerId, LoanBatchRequestDTO request) {
+        return processLoanBatch(borrowerId, request, false);
+    }
 
+    /**
+     * Checks out or returns several books in one transaction: the borrower is loaded once, all books with one
+     * query, and the accepted ones are written back as one JDBC batch of versioned updates. No row lock is held
+     * while the checks run; a copy changed concurrently fails the flush and {@link OptimisticRetry} runs the whole
+     * transaction again, where the fresh rows give the right answer.
+     */
+    private List<LoanBatchResultDTO> processLoanBatch(Long borrowerId, LoanBatchRequestDTO request, boolean borrow) {
+        List<Long> bookIds = request.getBookIds();
+        if (bookIds == null || bookIds.isEmpty() || bookIds.size() > MAX_LOAN_BATCH_SIZE) {
+            throw new IllegalArgumentException("A loan batch must contain between 1 and " + MAX_LOAN_BATCH_SIZE + " books");
+        }
         Borrower borrower = borrowerRepository.findById(borrowerId)
                 .orElseThrow(() -> new ResourceNotFoundException(BORROWER_NOT_FOUND + borrowerId));
+        Map<Long, Book> booksById = bookRepository.findAllCurrentById(bookIds.stream().filter(Objects::nonNull).distinct().toList())
+                .stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
 
-        Book book = bookRepository.findById(bookId)
-                .orElseThrow(() -> new ResourceNotFoundException("Book not found with id: " + bookId));
+        List<LoanBatchResultDTO> results = new ArrayList<>(bookIds.size());
+        Map<Long, Book> accepted = new LinkedHashMap<>();
+        for (Long bookId : bookIds) {
+            String error = loanBatchError(bookId, booksById.get(bookId), borrowerId, borrow, accepted);
+            results.add(new LoanBatchResultDTO(bookId, error == null, error));
+            if (error == null) {
+                accepted.put(bookId, booksById.get(bookId));
+            }
+        }
 
-        if (!book.isBorrowedBy(borrower)) {
-            throw new BookNotBorrowedException("Book was not borrowed by this borrower");
+        if (accepted.size() < bookIds.size() && request.getMode() != LoanBatchMode.PER_ITEM) {
+            results.stream()
+                    .filter(LoanBatchResultDTO::isSuccess)
+                    .forEach(result -> {
+                        result.setSuccess(false);
+                        result.setError("Not processed because another book in the batch failed");
+                    });
+            throw new LoanBatchRejectedException(results);
+        }
+        if (accepted.isEmpty()) {
+            return results;
+        }
+
+        // Counters are adjusted in ISBN order, so concurrent batches lock the rows in the same order.
+        Map<String, Long> availableByIsbn = new TreeMap<>();
+        Instant now = Instant.now();
+        for (Book book : accepted.values()) {
+            if (borrow) {
+                lend(book, borrower, now);
+                availableByIsbn.merge(book.getIsbn(), -1L, Long::sum);
+            } else if (release(book, now)) {
+                availableByIsbn.merge(book.getIsbn(), 1L, Long::sum);
+            }
+        }
+        bookRepository.flush();
+        availableByIsbn.forEach(isbnAvailabilityRepository::adjustAvailableForIsbn);
+        collectionVersionRepository.bump(CollectionVersion.BOOKS);
+        return results;
+    }
+
+    private String loanBatchError(Long bookId, Book book, Long borrowerId, boolean borrow, Map<Long, Book> accepted) {
+        if (bookId == null) {
+            return "Book id is required";
+        }
+        if (book == null) {
+            return BOOK_NOT_FOUND + bookId;
         }
+        if (accepted.containsKey(bookId)) {
+            return "Book appears more than once in the batch";
+        }
+        if (borrow && book.isAlreadyBorrowed()) {
+            return ALREADY_BORROWED;
+        }
+        if (!borrow && !borrowerId.equals(BookMapper.borrowerIdOf(book))) {
+            return NOT_BORROWED;
+        }
+        return null;
+    }
 
-        book.setBorrower(null);
-        bookRepository.save(book);
+    private void requireBorrower(Long borrowerId) {
+        if (!borrowerRepository.existsById(borrowerId)) {
+            throw new ResourceNotFoundException(BORROWER_NOT_FOUND + borrowerId);
+        }
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<BorrowerDTO> getAllBorrowers() {
         return borrowerRepository.findAll().stream()
-                .map(borrower -> modelMapper.map(borrower, BorrowerDTO.class))
+                .map(borrowerMapper::toDto)
                 .toList();
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public CursorPage<BorrowerDTO> getBorrowers(String after, int limit) {
+        int pageSize = CursorUtil.normalizeLimit(limit);
+        List<Borrower> borrowers = borrowerRepository.findByIdGreaterThanOrderByIdAsc(CursorUtil.decode(after), Limit.of(pageSize + 1));
+        return CursorUtil.toPage(borrowers, pageSize, Borrower::getId, borrowerMapper::toDto);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public BorrowerLoansDTO getLoans(Long borrowerId, String after, int limit) {
+        int pageSize = CursorUtil.normalizeLimit(limit);
+        long afterId = CursorUtil.decode(after);
+        if (!borrowerRepository.existsById(borrowerId)) {
+            throw new ResourceNotFoundException(BORROWER_NOT_FOUND + borrowerId);
+        }
+
+        List<BookSummary> books = bookRepository.findLoans(borrowerId, afterId, Limit.of(pageSize + 1));
+        CursorPage<BookSummary> page = CursorUtil.toPage(books, pageSize, BookSummary::getId, Function.identity());
+        return new BorrowerLoansDTO(borrowerId, bookRepository.countByBorrowerId(borrowerId), page.getItems(), page.getNextCursor());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<LoanEventDTO> getHistory(Long borrowerId, String after, int limit) {
+        int pageSize = CursorUtil.normalizeLimit(limit);
+        CursorUtil.TimedCursor cursor = CursorUtil.decodeTimed(after);
+        requireBorrower(borrowerId);
+        List<LoanEvent> events = loanEventRepository.findBorrowerHistory(borrowerId, cursor.at(), cursor.id(),
+                Limit.of(pageSize + 1));
+        return CursorUtil.toKeyedPage(events, pageSize, event -> event.getOccurredAt().toString(), LoanEvent::getId,
+                loanEventMapper::toDto);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long getBorrowersVersion() {
+        return collectionVersionRepository.currentVersion(CollectionVersion.BORROWERS);
+    }
+
+    /**
+     * A borrower's loans are rows of {@code book}, so any change to the catalog may change them.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long getLoansVersion() {
+        return collectionVersionRepository.currentVersion(CollectionVersion.BOOKS);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long getBorrowerVersion(Long borrowerId) {
+        return borrowerRepository.findVersionById(borrowerId)
+                .orElseThrow(() -> new ResourceNotFoundException(BORROWER_NOT_FOUND + borrowerId));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public BorrowerDTO getBorrowerById(Long borrowerId) {
         return borrowerRepository.findById(borrowerId)
-                .map(borrower -> modelMapper.map(borrower, BorrowerDTO.class))
+                .map(borrowerMapper::toDto)
                 .orElseThrow(() -> new ResourceNotFoundException(BORROWER_NOT_FOUND + borrowerId));
     }
 
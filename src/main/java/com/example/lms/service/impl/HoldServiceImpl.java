@@ -0,0 +1,150 @@
+package com.example.lms.service.impl;
+
+import com.example.lms.aspect.OptimisticRetry;
+import com.example.lms.dto.HoldDTO;
+import com.example.lms.dto.HoldStatus;
+import com.example.lms.entity.Book;
+import com.example.lms.entity.Borrower;
+import com.example.lms.entity.CollectionVersion;
+import com.example.lms.entity.Hold;
+import com.example.lms.entity.IsbnAvailability;
+import com.example.lms.entity.LoanEvent;
+import com.example.lms.exception.DuplicateHoldException;
+import com.example.lms.exception.ResourceNotFoundException;
+import com.example.lms.loan.LoanPolicy;
+import com.example.lms.repository.BookRepository;
+import com.example.lms.repository.BorrowerRepository;
+import com.example.lms.repository.CollectionVersionRepository;
+import com.example.lms.repository.HoldRepository;
+import com.example.lms.repository.IsbnAvailabilityRepository;
+import com.example.lms.repository.LoanEventRepository;
+import com.example.lms.service.HoldService;
+import com.example.lms.stats.BorrowStats;
+import com.example.lms.util.TransactionUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+public class HoldServiceImpl implements HoldService {
+
+    private final HoldRepository holdRepository;
+    private final BorrowerRepository borrowerRepository;
+    private final BookRepository bookRepository;
+    private final IsbnAvailabilityRepository isbnAvailabilityRepository;
+    private final CollectionVersionRepository collectionVersionRepository;
+    private final LoanPolicy loanPolicy;
+    private final LoanEventRepository loanEventRepository;
+    private final BorrowStats borrowStats;
+    private static final String BORROWER_NOT_FOUND = "Borrower not found with id: ";
+    private static final String DUPLICATE_HOLD = "Borrower already has a hold on ISBN: ";
+
+    @Autowired
+    public HoldServiceImpl(HoldRepository holdRepository, BorrowerRepository borrowerRepository,
+                           BookRepository bookRepository, IsbnAvailabilityRepository isbnAvailabilityRepository,
+                           CollectionVersionRepository collectionVersionRepository, LoanPolicy loanPolicy,
+                           LoanEventRepository loanEventRepository, BorrowStats borrowStats) {
+        this.holdRepository = holdRepository;
+        this.borrowerRepository = borrowerRepository;
+        this.bookRepository = bookRepository;
+        this.isbnAvailabilityRepository = isbnAvailabilityRepository;
+        this.collectionVersionRepository = collectionVersionRepository;
+        this.loanPolicy = loanPolicy;
+        this.loanEventRepository = loanEventRepository;
+        this.borrowStats = borrowStats;
+    }
+
+    /**
+     * Lends a copy right away when one is on the shelf and nobody is queued for the ISBN; otherwise queues the
+     * borrower behind the holds already placed. The counters are read under a write lock that returns also take before
+     * looking for a hold, so a copy returned meanwhile is either counted here or handed to the new hold. Two requests of the same borrower racing past the duplicate check
+     * are told apart by the unique constraint on {@code (isbn, borrower_id)}: the loser gets the same
+     * {@link DuplicateHoldException}.
+     */
+    @Override
+    @OptimisticRetry
+    @Transactional
+    public HoldDTO placeHold(Long borrowerId, String isbn) {
+        if (isbn == null || isbn.isBlank()) {
+            throw new IllegalArgumentException("ISBN is required");
+        }
+        Borrower borrower = borrowerRepository.findById(borrowerId)
+                .orElseThrow(() -> new ResourceNotFoundException(BORROWER_NOT_FOUND + borrowerId));
+        IsbnAvailability availability = isbnAvailabilityRepository.findLockedByIsbn(isbn)
+                .orElseThrow(() -> new ResourceNotFoundException("No copies registered with ISBN: " + isbn));
+        if (holdRepository.existsByIsbnAndBorrowerId(isbn, borrowerId)) {
+            throw new DuplicateHoldException(DUPLICATE_HOLD + isbn);
+        }
+
+        if (availability.getAvailable() > 0 && !holdRepository.existsByIsbn(isbn)) {
+            List<Book> copies = bookRepository.findAvailableCopies(isbn, Limit.of(1));
+            if (!copies.isEmpty()) {
+                Book copy = copies.get(0);
+                Instant now = Instant.now();
+                copy.lendTo(borrower, now, loanPolicy.dueAt(now));
+                loanEventRepository.save(LoanEvent.borrowed(copy, borrowerId));
+                TransactionUtil.afterCommit(() -> borrowStats.recordBorrow(isbn, copy.getTitle(), copy.getAuthor()));
+                bookRepository.flush();
+                isbnAvailabilityRepository.adjustAvailableForIsbn(isbn, -1);
+                collectionVersionRepository.bump(CollectionVersion.BOOKS);
+                return new HoldDTO(null, isbn, borrowerId, now, HoldStatus.FULFILLED, null, copy.getId());
+            }
+        }
+
+        Hold hold;
+        try {
+            hold = holdRepository.save(new Hold(null, isbn, borrower, Instant.now(), null));
+        } catch (DataIntegrityViolationException e) {
+            throw new DuplicateHoldException(DUPLICATE_HOLD + isbn);
+        }
+        return toDto(hold, position(hold));
+    }
+
+    @Override
+    @OptimisticRetry
+    @Transactional
+    public void cancelHold(Long borrowerId, Long holdId) {
+        Hold hold = holdRepository.findById(holdId)
+                .filter(candidate -> borrowerId.equals(candidate.getBorrower().getId()))
+                .orElseThrow(() -> new ResourceNotFoundException("Hold not found with id: " + holdId));
+        holdRepository.delete(hold);
+        holdRepository.flush();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<HoldDTO> getHoldsOfBorrower(Long borrowerId) {
+        if (!borrowerRepository.existsById(borrowerId)) {
+            throw new ResourceNotFoundException(BORROWER_NOT_FOUND + borrowerId);
+        }
+        return holdRepository.findByBorrowerIdOrderByIdAsc(borrowerId).stream()
+                .map(hold -> toDto(hold, position(hold)))
+                .toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<HoldDTO> getHoldsOfIsbn(String isbn) {
+        List<Hold> holds = holdRepository.findByIsbnOrderByIdAsc(isbn);
+        List<HoldDTO> queue = new ArrayList<>(holds.size());
+        for (Hold hold : holds) {
+            queue.add(toDto(hold, queue.size() + 1));
+        }
+        return queue;
+    }
+
+    private int position(Hold hold) {
+        return (int) holdRepository.countByIsbnAndIdLessThan(hold.getIsbn(), hold.getId()) + 1;
+    }
+
+    private static HoldDTO toDto(Hold hold, int position) {
+        return new HoldDTO(hold.getId(), hold.getIsbn(), hold.getBorrower().getId(), hold.getPlacedAt(),
+                HoldStatus.WAITING, position, null);
+    }
+}
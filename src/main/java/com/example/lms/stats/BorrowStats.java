@@ -0,0 +1,95 @@
+package com.example.lms.stats;
+
+import com.example.lms.dto.StatsDimension;
+import com.example.lms.dto.TopBorrowedDTO;
+import com.example.lms.dto.TopBorrowedEntryDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Live most-borrowed rankings of ISBNs and authors, kept in memory from the borrows of this instance and never
+ * read from the database. Each is a {@link SlidingTopK} of {@code buckets} buckets of {@code bucket}, so memory is
+ * fixed whatever the traffic and the longest window is their product (a day by default).
+ * <p>
+ * Ranking a window adds up its buckets' sketches, which is too slow to do per request; each ranking is computed at
+ * most once per {@code refresh} and served from memory in between, so a ranking can be that much behind.
+ */
+@Component
+public class BorrowStats {
+
+    private final Duration bucket;
+    private final int bucketCount;
+    private final int heavyHitters;
+    private final long refreshMillis;
+    private final Map<StatsDimension, SlidingTopK> rankings = new EnumMap<>(StatsDimension.class);
+    private final ConcurrentMap<RankingKey, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+    public BorrowStats(@Value("${lms.stats.bucket:10m}") Duration bucket,
+                       @Value("${lms.stats.buckets:144}") int bucketCount,
+                       @Value("${lms.stats.heavy-hitters:64}") int heavyHitters,
+                       @Value("${lms.stats.sketch.depth:4}") int depth,
+                       @Value("${lms.stats.sketch.width:512}") int width,
+                       @Value("${lms.stats.refresh:1s}") Duration refresh) {
+        this.bucket = bucket;
+        this.bucketCount = bucketCount;
+        this.heavyHitters = heavyHitters;
+        this.refreshMillis = refresh.toMillis();
+        for (StatsDimension dimension : StatsDimension.values()) {
+            rankings.put(dimension, new SlidingTopK(bucket.toMillis(), bucketCount, heavyHitters, depth, width));
+        }
+    }
+
+    public void recordBorrow(String isbn, String title, String author) {
+        recordBorrow(isbn, title, author, Instant.now());
+    }
+
+    public void recordBorrow(String isbn, String title, String author, Instant now) {
+        rankings.get(StatsDimension.ISBN).add(isbn, title, now.toEpochMilli());
+        rankings.get(StatsDimension.AUTHOR).add(author, null, now.toEpochMilli());
+    }
+
+    public TopBorrowedDTO top(StatsDimension by, Duration window, int limit) {
+        return top(by, window, limit, Instant.now());
+    }
+
+    /**
+     * The {@code limit} most borrowed keys over {@code window}, rounded up to whole buckets. At most
+     * {@code heavy-hitters} keys are ranked.
+     */
+    public TopBorrowedDTO top(StatsDimension by, Duration window, int limit, Instant now) {
+        if (window.isNegative() || window.isZero() || window.compareTo(bucket.multipliedBy(bucketCount)) > 0) {
+            throw new IllegalArgumentException("Window must be positive and at most " + bucket.multipliedBy(bucketCount));
+        }
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        int windowBuckets = (int) ((window.toMillis() + bucket.toMillis() - 1) / bucket.toMillis());
+        long nowMillis = now.toEpochMilli();
+
+        Snapshot snapshot = snapshots.compute(new RankingKey(by, windowBuckets), (key, cached) ->
+                cached != null && nowMillis >= cached.takenAt() && nowMillis - cached.takenAt() < refreshMillis
+                        ? cached
+                        : new Snapshot(nowMillis, rankings.get(by).rank(windowBuckets, nowMillis)));
+
+        List<TopBorrowedEntryDTO> items = snapshot.ranking().ranked().stream()
+                .limit(Math.min(limit, heavyHitters))
+                .map(ranked -> new TopBorrowedEntryDTO(ranked.key(), ranked.label(), ranked.count()))
+                .toList();
+        return new TopBorrowedDTO(by, bucket.multipliedBy(windowBuckets), Instant.ofEpochMilli(snapshot.takenAt()),
+                snapshot.ranking().total(), items);
+    }
+
+    private record RankingKey(StatsDimension by, int windowBuckets) {
+    }
+
+    private record Snapshot(long takenAt, SlidingTopK.Ranking ranking) {
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.lms.stats;
+
+import java.util.Arrays;
+
+/**
+ * Count-min sketch: {@code depth} rows of {@code width} counters, each key counted once per row. An estimate is
+ * the smallest of a key's counters, so it never undercounts and overcounts by at most {@code e / width} of all
+ * additions with probability {@code 1 - e^-depth}. Sketches of the same shape add up counter by counter, which is
+ * how a window is built from its buckets. Not thread-safe.
+ */
+final class CountMinSketch {
+
+    private final int[][] counters;
+    private final int mask;
+
+    CountMinSketch(int depth, int width) {
+        if (depth < 1 || width < 1 || Integer.bitCount(width) != 1) {
+            throw new IllegalArgumentException("Sketch depth must be positive and width a power of two");
+        }
+        this.counters = new int[depth][width];
+        this.mask = width - 1;
+    }
+
+    void add(String key) {
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int row = 0; row < counters.length; row++) {
+            counters[row][(h1 + row * h2) & mask]++;
+        }
+    }
+
+    long estimate(String key) {
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < counters.length; row++) {
+            estimate = Math.min(estimate, counters[row][(h1 + row * h2) & mask]);
+        }
+        return estimate;
+    }
+
+    void addAll(CountMinSketch other) {
+        for (int row = 0; row < counters.length; row++) {
+            int[] target = counters[row];
+            int[] source = other.counters[row];
+            for (int column = 0; column < target.length; column++) {
+                target[column] += source[column];
+            }
+        }
+    }
+
+    void clear() {
+        for (int[] row : counters) {
+            Arrays.fill(row, 0);
+        }
+    }
+
+    // Row indexes are derived from two halves of one 64-bit hash (Kirsch-Mitzenmacher); the finalizer of
+    // MurmurHash3 spreads String.hashCode over both.
+    private static long hash(String key) {
+        long hash = key.hashCode() * 0x9E3779B97F4A7C15L;
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        return hash ^ (hash >>> 33);
+    }
+}
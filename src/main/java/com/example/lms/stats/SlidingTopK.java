@@ -0,0 +1,91 @@
+package com.example.lms.stats;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Approximate counts and heavy hitters of one kind of key over a sliding window, in fixed memory. Time is cut into
+ * buckets of {@code bucketMillis}; a ring of buckets, each with its own count-min sketch and space-saving summary,
+ * covers the longest window, and a bucket is cleared when the ring comes round to it again. A window is the last
+ * {@code n} buckets, the current one included: its sketches are added up and every key a bucket monitors is ranked
+ * by its estimate from that sum.
+ */
+final class SlidingTopK {
+
+    private final long bucketMillis;
+    private final int depth;
+    private final int width;
+    private final Bucket[] buckets;
+
+    SlidingTopK(long bucketMillis, int bucketCount, int heavyHitters, int depth, int width) {
+        if (bucketMillis < 1 || bucketCount < 1) {
+            throw new IllegalArgumentException("Bucket duration and count must be positive");
+        }
+        this.bucketMillis = bucketMillis;
+        this.depth = depth;
+        this.width = width;
+        this.buckets = new Bucket[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            buckets[i] = new Bucket(new CountMinSketch(depth, width), new SpaceSaving(heavyHitters));
+        }
+    }
+
+    synchronized void add(String key, String label, long nowMillis) {
+        long epoch = Math.floorDiv(nowMillis, bucketMillis);
+        Bucket bucket = buckets[(int) Math.floorMod(epoch, buckets.length)];
+        if (bucket.epoch < epoch) {
+            bucket.sketch.clear();
+            bucket.heavyHitters.clear();
+            bucket.total = 0;
+            bucket.epoch = epoch;
+        }
+        bucket.sketch.add(key);
+        bucket.heavyHitters.offer(key, label);
+        bucket.total++;
+    }
+
+    /**
+     * Ranks the keys of the last {@code windowBuckets} buckets, most counted first.
+     */
+    synchronized Ranking rank(int windowBuckets, long nowMillis) {
+        long current = Math.floorDiv(nowMillis, bucketMillis);
+        CountMinSketch window = new CountMinSketch(depth, width);
+        Map<String, String> labels = new HashMap<>();
+        long total = 0;
+        for (Bucket bucket : buckets) {
+            if (bucket.epoch > current - windowBuckets && bucket.epoch <= current) {
+                window.addAll(bucket.sketch);
+                total += bucket.total;
+                for (SpaceSaving.Counter counter : bucket.heavyHitters.counters()) {
+                    labels.putIfAbsent(counter.key, counter.label);
+                }
+            }
+        }
+
+        List<Ranked> ranked = new ArrayList<>(labels.size());
+        labels.forEach((key, label) -> ranked.add(new Ranked(key, label, window.estimate(key))));
+        ranked.sort(Comparator.comparingLong(Ranked::count).reversed().thenComparing(Ranked::key));
+        return new Ranking(total, List.copyOf(ranked));
+    }
+
+    record Ranked(String key, String label, long count) {
+    }
+
+    record Ranking(long total, List<Ranked> ranked) {
+    }
+
+    private static final class Bucket {
+        private final CountMinSketch sketch;
+        private final SpaceSaving heavyHitters;
+        private long epoch = Long.MIN_VALUE;
+        private long total;
+
+        private Bucket(CountMinSketch sketch, SpaceSaving heavyHitters) {
+            this.sketch = sketch;
+            this.heavyHitters = heavyHitters;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.lms.stats;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Space-saving heavy hitters: at most {@code capacity} monitored keys. An unmonitored key replaces the one with the
+ * smallest count and inherits that count, so every key seen more than {@code additions / capacity} times is
+ * monitored. Finding the smallest count is a scan, which only happens once the summary is full and a new key
+ * arrives. Not thread-safe.
+ */
+final class SpaceSaving {
+
+    private final int capacity;
+    private final Map<String, Counter> counters;
+
+    SpaceSaving(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Heavy-hitter capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+    }
+
+    void offer(String key, String label) {
+        Counter counter = counters.get(key);
+        if (counter == null) {
+            if (counters.size() < capacity) {
+                counter = new Counter(key);
+            } else {
+                Counter smallest = null;
+                for (Counter candidate : counters.values()) {
+                    if (smallest == null || candidate.count < smallest.count) {
+                        smallest = candidate;
+                    }
+                }
+                counters.remove(smallest.key);
+                counter = new Counter(key);
+                counter.count = smallest.count;
+            }
+            counters.put(key, counter);
+        }
+        counter.count++;
+        counter.label = label;
+    }
+
+    Collection<Counter> counters() {
+        return counters.values();
+    }
+
+    void clear() {
+        counters.clear();
+    }
+
+    static final class Counter {
+        final String key;
+        String label;
+        long count;
+
+        private Counter(String key) {
+            this.key = key;
+        }
+    }
+}
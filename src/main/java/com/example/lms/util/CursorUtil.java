@@ -0,0 +1,144 @@
+package com.example.lms.util;
+
+import com.example.lms.dto.CursorPage;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Encodes and decodes the opaque {@code after} cursors used by the keyset-paginated endpoints.
+ * A cursor is the URL-safe Base64 form of the last id returned on the previous page; listings ordered by a string
+ * or timestamp column first carry that column's value after the id.
+ */
+public final class CursorUtil {
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private CursorUtil() {
+    }
+
+    public static String encode(long id) {
+        byte[] bytes = ByteBuffer.allocate(Long.BYTES).putLong(id).array();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /**
+     * Position after which a listing ordered by {@code (key, id)} resumes.
+     */
+    public record KeyedCursor(String key, long id) {
+    }
+
+    public static String encode(String key, long id) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        byte[] bytes = ByteBuffer.allocate(Long.BYTES + keyBytes.length).putLong(id).put(keyBytes).array();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /**
+     * Returns the id to seek after, or {@code 0} when no cursor is given (first page).
+     */
+    public static long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        byte[] bytes = decodeBytes(cursor);
+        if (bytes.length != Long.BYTES) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        return decodeId(bytes, cursor);
+    }
+
+    /**
+     * Returns the {@code (key, id)} position to seek after, or {@code ("", 0)} when no cursor is given (first page).
+     */
+    public static KeyedCursor decodeKeyed(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return new KeyedCursor("", 0L);
+        }
+        byte[] bytes = decodeBytes(cursor);
+        if (bytes.length < Long.BYTES) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        String key = new String(bytes, Long.BYTES, bytes.length - Long.BYTES, StandardCharsets.UTF_8);
+        return new KeyedCursor(key, decodeId(bytes, cursor));
+    }
+
+    /**
+     * Position after which a listing ordered by {@code (instant, id)} resumes.
+     */
+    public record TimedCursor(Instant at, long id) {
+    }
+
+    /**
+     * Returns the {@code (instant, id)} position to seek after, or {@code (EPOCH, 0)} when no cursor is given (first
+     * page). Such cursors are written by {@link #toKeyedPage} with the instant's ISO-8601 form as the key.
+     */
+    public static TimedCursor decodeTimed(String cursor) {
+        KeyedCursor keyed = decodeKeyed(cursor);
+        if (keyed.key().isEmpty()) {
+            return new TimedCursor(Instant.EPOCH, keyed.id());
+        }
+        try {
+            return new TimedCursor(Instant.parse(keyed.key()), keyed.id());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+
+    private static byte[] decodeBytes(String cursor) {
+        try {
+            return Base64.getUrlDecoder().decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+
+    private static long decodeId(byte[] bytes, String cursor) {
+        long id = ByteBuffer.wrap(bytes).getLong();
+        if (id < 0) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        return id;
+    }
+
+    public static int normalizeLimit(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+
+    /**
+     * Builds a page from rows fetched with {@code pageSize + 1} as the query limit; the extra row,
+     * if present, only signals that another page exists.
+     */
+    public static <E, D> CursorPage<D> toPage(List<E> rows, int pageSize, Function<E, Long> idOf, Function<E, D> mapper) {
+        boolean hasMore = rows.size() > pageSize;
+        List<E> pageRows = hasMore ? rows.subList(0, pageSize) : rows;
+        List<D> items = pageRows.stream().map(mapper).toList();
+        String nextCursor = hasMore ? encode(idOf.apply(pageRows.get(pageSize - 1))) : null;
+        return new CursorPage<>(items, nextCursor);
+    }
+
+    /**
+     * Like {@link #toPage}, for rows ordered by {@code (key, id)}.
+     */
+    public static <E, D> CursorPage<D> toKeyedPage(List<E> rows, int pageSize, Function<E, String> keyOf,
+                                                   Function<E, Long> idOf, Function<E, D> mapper) {
+        boolean hasMore = rows.size() > pageSize;
+        List<E> pageRows = hasMore ? rows.subList(0, pageSize) : rows;
+        List<D> items = pageRows.stream().map(mapper).toList();
+        String nextCursor = null;
+        if (hasMore) {
+            E last = pageRows.get(pageSize - 1);
+            nextCursor = encode(keyOf.apply(last), idOf.apply(last));
+        }
+        return new CursorPage<>(items, nextCursor);
+    }
+}
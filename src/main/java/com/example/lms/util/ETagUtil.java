@@ -0,0 +1,14 @@
+package com.example.lms.util;
+
+public final class ETagUtil {
+
+    private ETagUtil() {
+    }
+
+    /**
+     * Strong ETag for a representation that changes exactly when the given version does.
+     */
+    public static String of(long version) {
+        return "\"" + version + "\"";
+    }
+}
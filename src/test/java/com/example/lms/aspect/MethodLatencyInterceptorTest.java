@@ -0,0 +1,67 @@
+package com.example.lms.aspect;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MethodLatencyInterceptorTest {
+
+    @Mock
+    private MethodInvocation invocation;
+
+    private final MethodLatencyInterceptor interceptor = new MethodLatencyInterceptor();
+    private final CatalogService target = new CatalogService();
+
+    static class CatalogService {
+        public String findBook(Long bookId) {
+            return "book " + bookId;
+        }
+    }
+
+    @Test
+    void testRecordsEveryCallUnderTheMethodName() throws Throwable {
+        // Given
+        Method method = CatalogService.class.getMethod("findBook", Long.class);
+        when(invocation.getMethod()).thenReturn(method);
+        when(invocation.getThis()).thenReturn(target);
+        when(invocation.proceed()).thenReturn("result");
+
+        // When
+        for (int i = 0; i < 3; i++) {
+            assertEquals("result", interceptor.invoke(invocation));
+        }
+
+        // Then
+        Map<String, MethodLatencySnapshot> snapshots = interceptor.snapshots();
+        MethodLatencySnapshot snapshot = snapshots.get("CatalogService.findBook(Long)");
+        assertNotNull(snapshot, snapshots.keySet().toString());
+        assertEquals(3, snapshot.count());
+        assertTrue(snapshot.p50() <= snapshot.p99() && snapshot.p99() <= snapshot.max());
+    }
+
+    @Test
+    void testRecordsFailedCallsAndResets() throws Throwable {
+        // Given
+        Method method = CatalogService.class.getMethod("findBook", Long.class);
+        when(invocation.getMethod()).thenReturn(method);
+        when(invocation.getThis()).thenReturn(target);
+        when(invocation.proceed()).thenThrow(new IllegalStateException("boom"));
+
+        // When
+        assertThrows(IllegalStateException.class, () -> interceptor.invoke(invocation));
+
+        // Then
+        assertEquals(1, interceptor.snapshots().get("CatalogService.findBook(Long)").count());
+        interceptor.reset();
+        assertEquals(0, interceptor.snapshots().get("CatalogService.findBook(Long)").count());
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.lms.aspect;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OptimisticRetryAspectTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    static class LoanService {
+        int calls;
+        int conflicts;
+
+        @OptimisticRetry
+        public String borrow() {
+            calls++;
+            if (calls <= conflicts) {
+                throw new OptimisticLockingFailureException("Row was updated by another transaction");
+            }
+            return "borrowed";
+        }
+    }
+
+    private LoanService proxy(LoanService target, int maxAttempts) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new OptimisticRetryAspect(meterRegistry, maxAttempts, Duration.ofMillis(1), Duration.ofMillis(2)));
+        return factory.getProxy();
+    }
+
+    private double conflicts(String outcome) {
+        return meterRegistry.get("lms.optimistic.conflicts").tag("outcome", outcome).counter().count();
+    }
+
+    @Test
+    void testRetriesUntilTheCallSucceeds() {
+        // Given
+        LoanService target = new LoanService();
+        target.conflicts = 2;
+
+        // When
+        String result = proxy(target, 4).borrow();
+
+        // Then
+        assertEquals("borrowed", result);
+        assertEquals(3, target.calls);
+        assertEquals(2, conflicts("retried"));
+    }
+
+    @Test
+    void testGivesUpAfterMaxAttempts() {
+        // Given
+        LoanService target = new LoanService();
+        target.conflicts = Integer.MAX_VALUE;
+
+        // When, Then
+        assertThrows(OptimisticLockingFailureException.class, () -> proxy(target, 3).borrow());
+        assertEquals(3, target.calls);
+        assertEquals(2, conflicts("retried"));
+        assertEquals(1, conflicts("exhausted"));
+    }
+}
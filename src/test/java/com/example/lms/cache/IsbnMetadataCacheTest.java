@@ -0,0 +1,70 @@
+package com.example.lms.cache;
+
+import com.example.lms.entity.Book;
+import com.example.lms.repository.BookRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IsbnMetadataCacheTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private IsbnMetadataCache isbnMetadataCache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        isbnMetadataCache = new IsbnMetadataCache(bookRepository, meterRegistry, 100);
+    }
+
+    @Test
+    void testLoadsOnMissAndServesHitsFromMemory() {
+        // Given
+        Book book = new Book(1L, "978-1-60309-502-1", "The Clean Coder", "Robert C. Martin", null);
+        when(bookRepository.findFirstByIsbn("978-1-60309-502-1")).thenReturn(Optional.of(book));
+
+        // When
+        Optional<IsbnMetadata> first = isbnMetadataCache.get("978-1-60309-502-1");
+        Optional<IsbnMetadata> second = isbnMetadataCache.get("978-1-60309-502-1");
+
+        // Then
+        assertEquals(Optional.of(new IsbnMetadata("The Clean Coder", "Robert C. Martin")), first);
+        assertEquals(first, second);
+        verify(bookRepository, times(1)).findFirstByIsbn("978-1-60309-502-1");
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void testUnknownIsbnIsNotCached() {
+        when(bookRepository.findFirstByIsbn("978-1-60309-502-9")).thenReturn(Optional.empty());
+
+        assertTrue(isbnMetadataCache.get("978-1-60309-502-9").isEmpty());
+        assertTrue(isbnMetadataCache.get("978-1-60309-502-9").isEmpty());
+
+        verify(bookRepository, times(2)).findFirstByIsbn("978-1-60309-502-9");
+    }
+
+    @Test
+    void testPutMakesLookupQueryFree() {
+        isbnMetadataCache.put("978-1-60309-502-2", "Head First OOP", "Brett McLaughlin");
+
+        Optional<IsbnMetadata> metadata = isbnMetadataCache.get("978-1-60309-502-2");
+
+        assertTrue(metadata.isPresent());
+        assertTrue(metadata.get().matches("Head First OOP", "Brett McLaughlin"));
+        verify(bookRepository, never()).findFirstByIsbn(anyString());
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.lms.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.junit.jupiter.api.Test;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EntityCacheConfigTest {
+
+    private static CacheManager cacheManagerOf(EntityCacheConfig config) {
+        Map<String, Object> hibernateProperties = new HashMap<>();
+        config.customize(hibernateProperties);
+        return (CacheManager) hibernateProperties.get(ConfigSettings.CACHE_MANAGER);
+    }
+
+    private static EntityCacheConfig newConfig() {
+        return new EntityCacheConfig(new SimpleMeterRegistry(), 100, Duration.ofMinutes(1), 100, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void testContextsDoNotShareRegions() {
+        EntityCacheConfig first = newConfig();
+        Cache<Object, Object> firstBooks = cacheManagerOf(first).getCache(EntityCacheConfig.BOOK_REGION);
+        firstBooks.put(1L, "cached");
+
+        EntityCacheConfig second = newConfig();
+        second.destroy();
+
+        assertEquals("cached", firstBooks.get(1L));
+        assertTrue(cacheManagerOf(second).isClosed());
+        first.destroy();
+        assertTrue(firstBooks.isClosed());
+    }
+}
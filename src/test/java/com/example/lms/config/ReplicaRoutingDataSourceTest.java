@@ -0,0 +1,234 @@
+package com.example.lms.config;
+
+import com.example.lms.entity.Book;
+import com.example.lms.entity.Borrower;
+import com.example.lms.repository.BookRepository;
+import com.example.lms.repository.BorrowerRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReplicaRoutingDataSourceTest {
+
+    private static final String READ_HEARTBEAT = "select beat_millis from replica_heartbeat where id = ?";
+
+    @Mock
+    private DataSource primary;
+
+    @Mock
+    private DataSource replica;
+
+    @Mock
+    private JdbcTemplate primaryJdbc;
+
+    @Mock
+    private JdbcTemplate replicaJdbc;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @AfterEach
+    void clearReadOnly() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    private ReplicaLagMonitor monitor() {
+        return new ReplicaLagMonitor(primaryJdbc, replicaJdbc, Duration.ofSeconds(5), Duration.ofSeconds(1), meterRegistry);
+    }
+
+    private double routed(String target, String reason) {
+        return meterRegistry.get("lms.datasource.routing").tag("target", target).tag("reason", reason).counter().count();
+    }
+
+    @Test
+    void testRoutesReadOnlyTransactionsToAnUpToDateReplica() {
+        // Given
+        ReplicaLagMonitor monitor = monitor();
+        ReplicaRoutingDataSource dataSource = new ReplicaRoutingDataSource(primary, replica, monitor, meterRegistry);
+
+        // Mocking
+        when(replicaJdbc.queryForObject(eq(READ_HEARTBEAT), eq(Long.class), eq(1))).thenReturn(System.currentTimeMillis() - 100);
+
+        // When
+        monitor.check();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // Then
+        assertTrue(monitor.isReplicaUsable());
+        assertEquals(ReplicaRoutingDataSource.REPLICA, dataSource.determineCurrentLookupKey());
+        assertEquals(1, routed("replica", "read-only"));
+    }
+
+    @Test
+    void testRoutesReadWriteTransactionsToThePrimary() {
+        // Given
+        ReplicaLagMonitor monitor = monitor();
+        ReplicaRoutingDataSource dataSource = new ReplicaRoutingDataSource(primary, replica, monitor, meterRegistry);
+
+        // When
+        Object key = dataSource.determineCurrentLookupKey();
+
+        // Then
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, key);
+        assertEquals(1, routed("primary", "read-write"));
+    }
+
+    @Test
+    void testFallsBackToThePrimaryWhenTheReplicaLags() {
+        // Given
+        ReplicaLagMonitor monitor = monitor();
+        ReplicaRoutingDataSource dataSource = new ReplicaRoutingDataSource(primary, replica, monitor, meterRegistry);
+
+        // Mocking
+        when(replicaJdbc.queryForObject(eq(READ_HEARTBEAT), eq(Long.class), eq(1))).thenReturn(System.currentTimeMillis() - 60_000);
+
+        // When
+        monitor.check();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // Then
+        assertFalse(monitor.isReplicaUsable());
+        assertEquals(ReplicaRoutingDataSource.PRIMARY, dataSource.determineCurrentLookupKey());
+        assertEquals(1, routed("primary", "replica-unusable"));
+        assertTrue(meterRegistry.get("lms.datasource.replica.lag").gauge().value() >= 60);
+    }
+
+    @Test
+    void testFallsBackToThePrimaryWhenTheReplicaCannotBeRead() {
+        // Given
+        ReplicaLagMonitor monitor = monitor();
+
+        // Mocking
+        when(replicaJdbc.queryForObject(eq(READ_HEARTBEAT), eq(Long.class), eq(1)))
+                .thenReturn(System.currentTimeMillis())
+                .thenThrow(new DataAccessResourceFailureException("Connection refused"));
+
+        // When
+        monitor.check();
+        boolean usableBefore = monitor.isReplicaUsable();
+        monitor.check();
+
+        // Then
+        assertTrue(usableBefore);
+        assertFalse(monitor.isReplicaUsable());
+        assertTrue(Double.isNaN(meterRegistry.get("lms.datasource.replica.lag").gauge().value()));
+        assertEquals(0, meterRegistry.get("lms.datasource.replica.usable").gauge().value());
+    }
+
+    @Test
+    void testInsertsTheHeartbeatRowWhenMissing() {
+        // Given
+        ReplicaLagMonitor monitor = monitor();
+
+        // Mocking
+        when(primaryJdbc.update(eq("update replica_heartbeat set beat_millis = ? where id = ?"), anyLong(), eq(1))).thenReturn(0);
+
+        // When
+        monitor.check();
+
+        // Then
+        verify(primaryJdbc).update(eq("insert into replica_heartbeat (id, beat_millis) values (?, ?)"), eq(1), anyLong());
+        assertFalse(monitor.isReplicaUsable());
+    }
+
+    /**
+     * Runs against a real entity manager with the replica on a second H2 database that still has a copy on the shelf
+     * after the primary lent it, and outside a test transaction so that cache puts happen as in production.
+     */
+    @Nested
+    @DataJpaTest(properties = {
+            "lms.datasource.replica.enabled=true",
+            "lms.datasource.replica.url=jdbc:h2:mem:stale-replica;MODE=MySQL;DB_CLOSE_DELAY=-1"
+    })
+    @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+    @ActiveProfiles("test")
+    @Import({ReplicaDataSourceConfig.class, EntityCacheConfig.class, SimpleMeterRegistry.class})
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    class StaleReplicaRead {
+
+        @MockBean
+        private ReplicaLagMonitor replicaLagMonitor;
+
+        @Autowired
+        @Qualifier("replicaDataSource")
+        private DataSource replicaDataSource;
+
+        @Autowired
+        private BookRepository bookRepository;
+
+        @Autowired
+        private BorrowerRepository borrowerRepository;
+
+        @Autowired
+        private EntityManagerFactory entityManagerFactory;
+
+        @Autowired
+        private PlatformTransactionManager transactionManager;
+
+        @Test
+        void testStaleReplicaReadDoesNotRepopulateTheBookCache() {
+            // Given
+            TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+            TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+            readOnly.setReadOnly(true);
+            org.hibernate.Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+            Borrower borrower = borrowerRepository.save(new Borrower(null, "stale.replica@example.com", "Stale Replica"));
+            Book book = bookRepository.save(new Book(null, "978-0-13-468599-1", "The Pragmatic Programmer", "David Thomas", borrower));
+            JdbcTemplate replica = new JdbcTemplate(replicaDataSource);
+            replica.execute("create table if not exists book (id bigint primary key, isbn varchar(255) not null, "
+                    + "title varchar(255) not null, author varchar(255) not null, borrower_id bigint, "
+                    + "loaned_at timestamp(6) with time zone, due_at timestamp(6) with time zone, "
+                    + "overdue boolean not null, version bigint not null)");
+            replica.update("insert into book (id, isbn, title, author, overdue, version) values (?, ?, ?, ?, false, 0)",
+                    book.getId(), book.getIsbn(), book.getTitle(), book.getAuthor());
+
+            // Mocking
+            when(replicaLagMonitor.isReplicaUsable()).thenReturn(true);
+
+            try {
+                // When
+                cache.evictEntityData(Book.class, book.getId());
+                Book stale = readOnly.execute(status -> bookRepository.findById(book.getId()).orElseThrow());
+                boolean cachedAfterReplicaRead = cache.containsEntity(Book.class, book.getId());
+                Book fresh = readWrite.execute(status -> bookRepository.findById(book.getId()).orElseThrow());
+
+                // Then
+                assertNull(stale.getBorrower());
+                assertFalse(cachedAfterReplicaRead);
+                assertNotNull(fresh.getBorrower());
+                assertTrue(cache.containsEntity(Book.class, book.getId()));
+            } finally {
+                replica.update("delete from book where id = ?", book.getId());
+                bookRepository.deleteById(book.getId());
+                borrowerRepository.deleteById(borrower.getId());
+            }
+        }
+    }
+}
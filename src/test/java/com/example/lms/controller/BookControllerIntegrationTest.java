@@ -1,6 +1,7 @@
 package com.example.lms.controller;
 
 import com.example.lms.dto.BookDTO;
+import com.example.lms.dto.CursorPage;
 import com.example.lms.service.BookService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -11,15 +12,18 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
 import java.util.Collections;
+import java.util.function.Consumer;
 import java.util.List;
 
 @ExtendWith(SpringExtension.class)
@@ -83,4 +87,67 @@ class BookControllerIntegrationTest {
                 .andExpect(MockMvcResultMatchers.jsonPath("$[0].author").value(testBookDTO.getAuthor()))
                 .andExpect(MockMvcResultMatchers.jsonPath("$[0].isbn").value(testBookDTO.getIsbn()));
     }
+
+    @Test
+    void testGetBookDetailsWithCurrentETag() throws Exception {
+        Mockito.when(bookService.getBookVersion(1L)).thenReturn(3L);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/books/1").header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+                .andExpect(MockMvcResultMatchers.status().isNotModified())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"3\""))
+                .andExpect(MockMvcResultMatchers.content().string(""));
+        Mockito.verify(bookService, Mockito.never()).getBookById(1L);
+    }
+
+    @Test
+    void testGetBookDetailsWithStaleETag() throws Exception {
+        Mockito.when(bookService.getBookVersion(1L)).thenReturn(4L);
+        Mockito.when(bookService.getBookById(1L)).thenReturn(testBookDTO);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/books/1").header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"4\""))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.id").value(testBookDTO.getId()));
+    }
+
+    @Test
+    void testGetBooksPage() throws Exception {
+        Mockito.when(bookService.getBooks("AAAAAAAAAAE", 10)).thenReturn(new CursorPage<>(List.of(testBookDTO), null));
+
+        ResultActions resultActions = mockMvc.perform(MockMvcRequestBuilders.get("/api/books/page")
+                .param("after", "AAAAAAAAAAE")
+                .param("limit", "10"));
+
+        resultActions.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.items[0].id").value(testBookDTO.getId()))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void testGetBooksPageWithInvalidCursor() throws Exception {
+        Mockito.when(bookService.getBooks("bogus", 20)).thenThrow(new IllegalArgumentException("Invalid cursor: bogus"));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/books/page").param("after", "bogus"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
+
+    @Test
+    void testExportBooks() throws Exception {
+        Mockito.doAnswer(invocation -> {
+            Consumer<BookDTO> consumer = invocation.getArgument(0);
+            consumer.accept(testBookDTO);
+            consumer.accept(testBookDTO);
+            return null;
+        }).when(bookService).exportBooks(Mockito.any());
+
+        MvcResult mvcResult = mockMvc.perform(MockMvcRequestBuilders.get("/api/books/export"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        String line = objectMapper.writeValueAsString(testBookDTO);
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(mvcResult))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(MockMvcResultMatchers.content().string(line + "\n" + line + "\n"));
+    }
 }
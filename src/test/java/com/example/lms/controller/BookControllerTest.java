@@ -8,14 +8,21 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.util.Collections;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -57,12 +64,51 @@ class BookControllerTest {
         // Mocking behavior of BookService
         List<BookDTO> mockBooks = Collections.singletonList(mockBookDTO);
         when(bookService.getAllBooks()).thenReturn(mockBooks);
+        when(bookService.getCatalogVersion()).thenReturn(7L);
 
         // Call the controller method
-        ResponseEntity<List<BookDTO>> responseEntity = bookController.getAllBooks();
+        ResponseEntity<List<BookDTO>> responseEntity = bookController.getAllBooks(webRequest(null));
 
         // Assertions
         assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals("\"7\"", responseEntity.getHeaders().getETag());
         assertEquals(mockBooks, responseEntity.getBody());
     }
+
+    @Test
+    void testGetBookDetailsNotModified() {
+        // Mocking behavior of BookService
+        when(bookService.getBookVersion(1L)).thenReturn(3L);
+
+        // Call the controller method with the ETag of the current version
+        ResponseEntity<BookDTO> responseEntity = bookController.getBookDetails(1L, webRequest("\"3\""));
+
+        // Assertions
+        assertEquals(HttpStatus.NOT_MODIFIED, responseEntity.getStatusCode());
+        assertNull(responseEntity.getBody());
+        verify(bookService, never()).getBookById(1L);
+    }
+
+    @Test
+    void testGetBookDetailsModified() {
+        // Mocking behavior of BookService
+        when(bookService.getBookVersion(1L)).thenReturn(4L);
+        when(bookService.getBookById(1L)).thenReturn(mockBookDTO);
+
+        // Call the controller method with the ETag of an older version
+        ResponseEntity<BookDTO> responseEntity = bookController.getBookDetails(1L, webRequest("\"3\""));
+
+        // Assertions
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals("\"4\"", responseEntity.getHeaders().getETag());
+        assertEquals(mockBookDTO, responseEntity.getBody());
+    }
+
+    private static ServletWebRequest webRequest(String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/books");
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return new ServletWebRequest(request, new MockHttpServletResponse());
+    }
 }
@@ -1,6 +1,12 @@
 package com.example.lms.controller;
 
 import com.example.lms.dto.BorrowerDTO;
+import com.example.lms.dto.BorrowerLoansDTO;
+import com.example.lms.dto.LoanBatchMode;
+import com.example.lms.dto.LoanBatchRequestDTO;
+import com.example.lms.dto.LoanBatchResultDTO;
+import com.example.lms.exception.LoanBatchRejectedException;
+import com.example.lms.exception.ResourceNotFoundException;
 import com.example.lms.service.BorrowerService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -11,6 +17,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
@@ -103,4 +110,62 @@ class BorrowerControllerIntegrationTest {
                 .andExpect(MockMvcResultMatchers.jsonPath("$[0].name").value(testBorrowerDTO.getName()))
                 .andExpect(MockMvcResultMatchers.jsonPath("$[0].email").value(testBorrowerDTO.getEmail()));
     }
+
+    @Test
+    void testGetLoans() throws Exception {
+        BorrowerLoansDTO loans = new BorrowerLoansDTO(1L, 0L, Collections.emptyList(), null);
+        Mockito.when(borrowerService.getLoans(1L, null, 20)).thenReturn(loans);
+
+        ResultActions resultActions = mockMvc.perform(MockMvcRequestBuilders.get("/api/borrowers/1/books"));
+
+        resultActions.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.borrowerId").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.loanCount").value(0))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.books").isEmpty());
+    }
+
+    @Test
+    void testGetLoansOfUnknownBorrowerWithCurrentETag() throws Exception {
+        Mockito.when(borrowerService.getBorrowerVersion(99L)).thenThrow(new ResourceNotFoundException("Borrower not found with id: 99"));
+        Mockito.when(borrowerService.getLoansVersion()).thenReturn(7L);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/borrowers/99/books").header(HttpHeaders.IF_NONE_MATCH, "\"7\""))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+    }
+
+    @Test
+    void testGetLoansWithInvalidCursor() throws Exception {
+        Mockito.when(borrowerService.getLoans(1L, "not-a-cursor", 20)).thenThrow(new IllegalArgumentException("Invalid cursor"));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/borrowers/1/books").param("after", "not-a-cursor"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
+
+    @Test
+    void testBorrowBooks() throws Exception {
+        LoanBatchRequestDTO request = new LoanBatchRequestDTO(List.of(10L, 11L), LoanBatchMode.PER_ITEM);
+        List<LoanBatchResultDTO> results = List.of(new LoanBatchResultDTO(10L, true, null),
+                new LoanBatchResultDTO(11L, false, "Book is already borrowed"));
+        Mockito.when(borrowerService.borrowBooks(1L, request)).thenReturn(results);
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/borrowers/1/borrow")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].success").value(true))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[1].error").value("Book is already borrowed"));
+    }
+
+    @Test
+    void testReturnBooksAllOrNothingConflict() throws Exception {
+        LoanBatchRequestDTO request = new LoanBatchRequestDTO(List.of(10L), LoanBatchMode.ALL_OR_NOTHING);
+        List<LoanBatchResultDTO> results = List.of(new LoanBatchResultDTO(10L, false, "Book was not borrowed by this borrower"));
+        Mockito.when(borrowerService.returnBooks(1L, request)).thenThrow(new LoanBatchRejectedException(results));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/borrowers/1/return")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(MockMvcResultMatchers.status().isConflict())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].bookId").value(10));
+    }
 }
@@ -1,6 +1,8 @@
 package com.example.lms.controller;
 
 import com.example.lms.dto.BorrowerDTO;
+import com.example.lms.dto.CursorPage;
+import com.example.lms.dto.LoanEventDTO;
 import com.example.lms.service.BorrowerService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -8,15 +10,22 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.util.Collections;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -80,6 +89,29 @@ class BorrowerControllerTest {
         assertEquals("Book returned successfully", responseEntity.getBody());
     }
 
+    @Test
+    void testGetHistory() {
+        // Mocking behavior of BorrowerService
+        CursorPage<LoanEventDTO> history = new CursorPage<>(Collections.emptyList(), null);
+        when(borrowerService.getHistory(1L, null, 20)).thenReturn(history);
+
+        // Call the controller method
+        ResponseEntity<CursorPage<LoanEventDTO>> responseEntity = borrowerController.getHistory(1L, null, 20);
+
+        // Assertions
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(history, responseEntity.getBody());
+    }
+
+    @Test
+    void testGetHistoryWithInvalidCursor() {
+        when(borrowerService.getHistory(1L, "bad", 20)).thenThrow(new IllegalArgumentException("Invalid cursor"));
+
+        ResponseEntity<CursorPage<LoanEventDTO>> responseEntity = borrowerController.getHistory(1L, "bad", 20);
+
+        assertEquals(HttpStatus.BAD_REQUEST, responseEntity.getStatusCode());
+    }
+
     @Test
     void testGetAllBorrowers() {
         // Mocking behavior of BorrowerService
@@ -87,12 +119,48 @@ class BorrowerControllerTest {
         when(borrowerService.getAllBorrowers()).thenReturn(mockBorrowers);
 
         // Call the controller method
-        ResponseEntity<List<BorrowerDTO>> responseEntity = borrowerController.getAllBorrowers();
+        ResponseEntity<List<BorrowerDTO>> responseEntity = borrowerController.getAllBorrowers(webRequest(null));
 
         // Assertions
         assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals("\"0\"", responseEntity.getHeaders().getETag());
         assertEquals(mockBorrowers, responseEntity.getBody());
     }
 
+    @Test
+    void testGetAllBorrowersNotModified() {
+        // Mocking behavior of BorrowerService
+        when(borrowerService.getBorrowersVersion()).thenReturn(12L);
+
+        // Call the controller method with the ETag of the current version
+        ResponseEntity<List<BorrowerDTO>> responseEntity = borrowerController.getAllBorrowers(webRequest("\"12\""));
+
+        // Assertions
+        assertEquals(HttpStatus.NOT_MODIFIED, responseEntity.getStatusCode());
+        assertNull(responseEntity.getBody());
+        verify(borrowerService, never()).getAllBorrowers();
+    }
+
+    @Test
+    void testGetBorrowerDetailsNotModified() {
+        // Mocking behavior of BorrowerService
+        when(borrowerService.getBorrowerVersion(1L)).thenReturn(2L);
+
+        // Call the controller method with the ETag of the current version
+        ResponseEntity<BorrowerDTO> responseEntity = borrowerController.getBorrowerDetails(1L, webRequest("\"2\""));
+
+        // Assertions
+        assertEquals(HttpStatus.NOT_MODIFIED, responseEntity.getStatusCode());
+        verify(borrowerService, never()).getBorrowerById(1L);
+    }
+
+    private static ServletWebRequest webRequest(String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/borrowers");
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return new ServletWebRequest(request, new MockHttpServletResponse());
+    }
+
 
 }
@@ -0,0 +1,113 @@
+package com.example.lms.controller;
+
+import com.example.lms.dto.HoldDTO;
+import com.example.lms.dto.HoldRequestDTO;
+import com.example.lms.dto.HoldStatus;
+import com.example.lms.exception.DuplicateHoldException;
+import com.example.lms.service.HoldService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class HoldControllerTest {
+
+    @Mock
+    private HoldService holdService;
+
+    @InjectMocks
+    private HoldController holdController;
+
+    @Test
+    void testPlaceHoldQueuesTheBorrower() {
+        // Given
+        HoldDTO hold = new HoldDTO(7L, "978-1-60309-502-1", 1L, Instant.now(), HoldStatus.WAITING, 3, null);
+
+        // Mocking behavior of HoldService
+        when(holdService.placeHold(1L, "978-1-60309-502-1")).thenReturn(hold);
+
+        // Call the controller method
+        ResponseEntity<HoldDTO> responseEntity = holdController.placeHold(new HoldRequestDTO(1L, "978-1-60309-502-1"));
+
+        // Assertions
+        assertEquals(HttpStatus.CREATED, responseEntity.getStatusCode());
+        assertEquals(hold, responseEntity.getBody());
+    }
+
+    @Test
+    void testPlaceHoldLendsAnAvailableCopy() {
+        // Given
+        HoldDTO hold = new HoldDTO(null, "978-1-60309-502-1", 1L, Instant.now(), HoldStatus.FULFILLED, null, 10L);
+
+        // Mocking behavior of HoldService
+        when(holdService.placeHold(1L, "978-1-60309-502-1")).thenReturn(hold);
+
+        // Call the controller method
+        ResponseEntity<HoldDTO> responseEntity = holdController.placeHold(new HoldRequestDTO(1L, "978-1-60309-502-1"));
+
+        // Assertions
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(10L, responseEntity.getBody().getBookId());
+    }
+
+    @Test
+    void testPlaceHoldTwice() {
+        // Mocking behavior of HoldService
+        when(holdService.placeHold(1L, "978-1-60309-502-1"))
+                .thenThrow(new DuplicateHoldException("Borrower already has a hold on ISBN: 978-1-60309-502-1"));
+
+        // Call the controller method
+        ResponseEntity<HoldDTO> responseEntity = holdController.placeHold(new HoldRequestDTO(1L, "978-1-60309-502-1"));
+
+        // Assertions
+        assertEquals(HttpStatus.CONFLICT, responseEntity.getStatusCode());
+    }
+
+    @Test
+    void testCancelHold() {
+        // Call the controller method
+        ResponseEntity<Void> responseEntity = holdController.cancelHold(7L, 1L);
+
+        // Assertions
+        assertEquals(HttpStatus.NO_CONTENT, responseEntity.getStatusCode());
+        verify(holdService).cancelHold(1L, 7L);
+    }
+
+    @Test
+    void testGetHoldsOfIsbn() {
+        // Given
+        List<HoldDTO> queue = List.of(new HoldDTO(7L, "978-1-60309-502-1", 1L, Instant.now(), HoldStatus.WAITING, 1, null));
+
+        // Mocking behavior of HoldService
+        when(holdService.getHoldsOfIsbn("978-1-60309-502-1")).thenReturn(queue);
+
+        // Call the controller method
+        ResponseEntity<List<HoldDTO>> responseEntity = holdController.getHolds(null, "978-1-60309-502-1");
+
+        // Assertions
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(queue, responseEntity.getBody());
+    }
+
+    @Test
+    void testGetHoldsRequiresExactlyOneFilter() {
+        // Call the controller method
+        ResponseEntity<List<HoldDTO>> responseEntity = holdController.getHolds(1L, "978-1-60309-502-1");
+
+        // Assertions
+        assertEquals(HttpStatus.BAD_REQUEST, responseEntity.getStatusCode());
+        verifyNoInteractions(holdService);
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.lms.controller;
+
+import com.example.lms.dto.StatsDimension;
+import com.example.lms.dto.TopBorrowedDTO;
+import com.example.lms.dto.TopBorrowedEntryDTO;
+import com.example.lms.stats.BorrowStats;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class StatsControllerTest {
+
+    @Mock
+    private BorrowStats borrowStats;
+
+    @InjectMocks
+    private StatsController statsController;
+
+    @Test
+    void testGetTopBorrowed() {
+        // Given
+        TopBorrowedDTO top = new TopBorrowedDTO(StatsDimension.AUTHOR, Duration.ofHours(24), Instant.now(), 12,
+                List.of(new TopBorrowedEntryDTO("Robert C. Martin", null, 7)));
+
+        // Mocking behavior of BorrowStats
+        when(borrowStats.top(StatsDimension.AUTHOR, Duration.ofHours(24), 5)).thenReturn(top);
+
+        // Call the controller method
+        ResponseEntity<TopBorrowedDTO> responseEntity = statsController.getTopBorrowed(StatsDimension.AUTHOR, "24h", 5);
+
+        // Assertions
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(top, responseEntity.getBody());
+    }
+
+    @Test
+    void testGetTopBorrowedWithMalformedWindow() {
+        ResponseEntity<TopBorrowedDTO> responseEntity = statsController.getTopBorrowed(StatsDimension.ISBN, "an hour", 10);
+
+        assertEquals(HttpStatus.BAD_REQUEST, responseEntity.getStatusCode());
+        verifyNoInteractions(borrowStats);
+    }
+
+    @Test
+    void testGetTopBorrowedWithWindowTooLong() {
+        when(borrowStats.top(StatsDimension.ISBN, Duration.ofDays(7), 10))
+                .thenThrow(new IllegalArgumentException("Window must be positive and at most PT24H"));
+
+        ResponseEntity<TopBorrowedDTO> responseEntity = statsController.getTopBorrowed(StatsDimension.ISBN, "7d", 10);
+
+        assertEquals(HttpStatus.BAD_REQUEST, responseEntity.getStatusCode());
+    }
+}
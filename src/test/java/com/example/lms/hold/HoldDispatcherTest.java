@@ -0,0 +1,65 @@
+package com.example.lms.hold;
+
+import com.example.lms.entity.Borrower;
+import com.example.lms.entity.Hold;
+import com.example.lms.repository.HoldRepository;
+import com.example.lms.repository.IsbnAvailabilityRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HoldDispatcherTest {
+
+    private static final String ISBN = "978-1-60309-502-1";
+
+    @Mock
+    private HoldRepository holdRepository;
+
+    @Mock
+    private IsbnAvailabilityRepository isbnAvailabilityRepository;
+
+    @InjectMocks
+    private HoldDispatcher holdDispatcher;
+
+    @Test
+    void testClaimNextTakesTheFirstHold() {
+        // Given
+        Hold hold = new Hold(7L, ISBN, new Borrower(2L, "jane.doe@example.com", "Jane Doe"), Instant.now(), 0L);
+
+        // Mocking
+        when(holdRepository.findFirstByIsbnOrderByIdAsc(ISBN)).thenReturn(Optional.of(hold));
+
+        // When
+        Hold next = holdDispatcher.claimNext(ISBN);
+
+        // Then
+        assertEquals(hold, next);
+        InOrder inOrder = inOrder(isbnAvailabilityRepository, holdRepository);
+        inOrder.verify(isbnAvailabilityRepository).findLockedByIsbn(ISBN);
+        inOrder.verify(holdRepository).findFirstByIsbnOrderByIdAsc(ISBN);
+        inOrder.verify(holdRepository).delete(hold);
+    }
+
+    @Test
+    void testClaimNextWithoutHolds() {
+        // Mocking
+        when(holdRepository.findFirstByIsbnOrderByIdAsc(ISBN)).thenReturn(Optional.empty());
+
+        // When
+        Hold next = holdDispatcher.claimNext(ISBN);
+
+        // Then
+        assertNull(next);
+        verify(holdRepository, never()).delete(any(Hold.class));
+    }
+}
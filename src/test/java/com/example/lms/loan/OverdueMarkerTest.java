@@ -0,0 +1,76 @@
+package com.example.lms.loan;
+
+import com.example.lms.entity.Book;
+import com.example.lms.entity.Borrower;
+import com.example.lms.entity.CollectionVersion;
+import com.example.lms.repository.BookRepository;
+import com.example.lms.repository.CollectionVersionRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OverdueMarkerTest {
+
+    private static final Instant NOW = Instant.parse("2024-06-01T12:00:00Z");
+
+    @Mock
+    private BookRepository bookRepository;
+    @Mock
+    private CollectionVersionRepository collectionVersionRepository;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private OverdueMarker overdueMarker;
+
+    @Test
+    void testMarksOnlyLoansStillOverdue() {
+        // Given
+        Borrower borrower = new Borrower(1L, "raymond.tang@example.com", "Raymond Tang");
+        Book overdue = new Book(10L, "978-1-60309-502-1", "The Clean Coder", "Robert C. Martin", null);
+        overdue.lendTo(borrower, NOW.minusSeconds(3_000_000), NOW.minusSeconds(60));
+        Book renewed = new Book(11L, "978-1-60309-502-2", "Head First OOP", "Brett McLaughlin", null);
+        renewed.lendTo(borrower, NOW.minusSeconds(60), NOW.plusSeconds(3_000_000));
+        Book returned = new Book(12L, "978-1-60309-502-3", "Refactoring", "Martin Fowler", null);
+
+        // Mocking
+        when(bookRepository.findAllCurrentById(List.of(10L, 11L, 12L))).thenReturn(List.of(overdue, renewed, returned));
+
+        // When
+        int marked = overdueMarker.markOverdue(List.of(10L, 11L, 12L), NOW);
+
+        // Then
+        assertEquals(1, marked);
+        assertTrue(overdue.isOverdue());
+        assertFalse(renewed.isOverdue());
+        verify(bookRepository).flush();
+        verify(collectionVersionRepository).bump(CollectionVersion.BOOKS);
+        verify(eventPublisher).publishEvent(new OverdueNotice(10L, "978-1-60309-502-1", 1L, NOW.minusSeconds(60)));
+    }
+
+    @Test
+    void testNothingToMark() {
+        // Mocking
+        when(bookRepository.findAllCurrentById(List.of(12L)))
+                .thenReturn(List.of(new Book(12L, "978-1-60309-502-3", "Refactoring", "Martin Fowler", null)));
+
+        // When
+        int marked = overdueMarker.markOverdue(List.of(12L), NOW);
+
+        // Then
+        assertEquals(0, marked);
+        verify(bookRepository, never()).flush();
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+}
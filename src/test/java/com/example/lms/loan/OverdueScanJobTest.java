@@ -0,0 +1,108 @@
+package com.example.lms.loan;
+
+import com.example.lms.repository.BookRepository;
+import com.example.lms.repository.projection.LoanDue;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OverdueScanJobTest {
+
+    private static final Instant NOW = Instant.parse("2024-06-01T12:00:00Z");
+    private static final Instant DUE = Instant.parse("2024-05-01T12:00:00Z");
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private OverdueMarker overdueMarker;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private static LoanDue loan(long id, Instant dueAt) {
+        return new LoanDue() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Instant getDueAt() {
+                return dueAt;
+            }
+        };
+    }
+
+    @Test
+    void testScansInKeysetChunks() {
+        // Given
+        OverdueScanJob job = new OverdueScanJob(bookRepository, overdueMarker, 2, 2, meterRegistry);
+
+        // Mocking
+        when(bookRepository.findOverdueLoans(NOW, Instant.EPOCH, 0L, Limit.of(2)))
+                .thenReturn(List.of(loan(1, DUE), loan(2, DUE)));
+        when(bookRepository.findOverdueLoans(NOW, DUE, 2L, Limit.of(2)))
+                .thenReturn(List.of(loan(3, DUE.plusSeconds(60))));
+        when(overdueMarker.markOverdue(List.of(1L, 2L), NOW)).thenReturn(2);
+        when(overdueMarker.markOverdue(List.of(3L), NOW)).thenReturn(1);
+
+        // When
+        long marked = job.scan(NOW);
+
+        // Then
+        assertEquals(3, marked);
+        assertEquals(3, meterRegistry.get("lms.loans.overdue.scanned").counter().count());
+        assertEquals(3, meterRegistry.get("lms.loans.overdue.marked").counter().count());
+        assertEquals(1, meterRegistry.get("lms.loans.overdue.scan").timer().count());
+    }
+
+    @Test
+    void testFailedChunkDoesNotStopTheScan() {
+        // Given
+        OverdueScanJob job = new OverdueScanJob(bookRepository, overdueMarker, 1, 1, meterRegistry);
+
+        // Mocking
+        when(bookRepository.findOverdueLoans(NOW, Instant.EPOCH, 0L, Limit.of(1))).thenReturn(List.of(loan(1, DUE)));
+        when(bookRepository.findOverdueLoans(NOW, DUE, 1L, Limit.of(1))).thenReturn(List.of(loan(2, DUE)));
+        when(bookRepository.findOverdueLoans(NOW, DUE, 2L, Limit.of(1))).thenReturn(List.of());
+        when(overdueMarker.markOverdue(List.of(1L), NOW)).thenThrow(new IllegalStateException("Connection lost"));
+        when(overdueMarker.markOverdue(List.of(2L), NOW)).thenReturn(1);
+
+        // When
+        long marked = job.scan(NOW);
+
+        // Then
+        assertEquals(1, marked);
+        assertEquals(1, meterRegistry.get("lms.loans.overdue.failed.chunks").counter().count());
+    }
+
+    @Test
+    void testNothingDue() {
+        // Given
+        OverdueScanJob job = new OverdueScanJob(bookRepository, overdueMarker, 500, 2, meterRegistry);
+
+        // Mocking
+        when(bookRepository.findOverdueLoans(eq(NOW), eq(Instant.EPOCH), eq(0L), any(Limit.class))).thenReturn(List.of());
+
+        // When
+        long marked = job.scan(NOW);
+
+        // Then
+        assertEquals(0, marked);
+        verify(overdueMarker, never()).markOverdue(any(), any());
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.lms.logging;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Reads the appenders configured by {@code logback.xml}.
+ */
+class AsyncLoggingMetricsTest {
+
+    @Test
+    void testPublishesTheQueuesOfBothAppenders() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        new AsyncLoggingMetrics().bindTo(registry);
+
+        for (String appender : AsyncLoggingMetrics.APPENDER_NAMES) {
+            assertEquals(8192, registry.get("logging.async.capacity").tag("appender", appender).gauge().value());
+            double queued = registry.get("logging.async.queued").tag("appender", appender).gauge().value();
+            assertTrue(queued >= 0 && queued <= 8192, appender + " queued " + queued);
+            double dropped = registry.get("logging.async.dropped").tag("appender", appender).functionCounter().count();
+            assertTrue(dropped >= 0, appender + " dropped " + dropped);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.lms.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CountingAsyncAppenderTest {
+
+    private final Logger logger = (Logger) LoggerFactory.getLogger(CountingAsyncAppenderTest.class);
+    private final LoggerContext context = logger.getLoggerContext();
+
+    private LoggingEvent event(Level level) {
+        return new LoggingEvent(Logger.FQCN, logger, level, "event", null, null);
+    }
+
+    @Test
+    void testCountsEventsDroppedByTheThresholdAndByNeverBlock() throws InterruptedException {
+        // The worker takes the first event and blocks writing it, so the queue only fills from then on.
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AppenderBase<ILoggingEvent> blocking = new AppenderBase<>() {
+            @Override
+            protected void append(ILoggingEvent event) {
+                writing.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        blocking.setContext(context);
+        blocking.start();
+        CountingAsyncAppender appender = new CountingAsyncAppender();
+        appender.setContext(context);
+        appender.setQueueSize(4);
+        appender.setDiscardingThreshold(2);
+        appender.setNeverBlock(true);
+        appender.addAppender(blocking);
+        appender.start();
+
+        try {
+            appender.doAppend(event(Level.INFO));
+            assertTrue(writing.await(5, TimeUnit.SECONDS));
+            appender.doAppend(event(Level.WARN));
+            appender.doAppend(event(Level.WARN));
+            appender.doAppend(event(Level.INFO));  // 2 slots free: queued
+            appender.doAppend(event(Level.INFO));  // 1 slot free: below the threshold, dropped
+            appender.doAppend(event(Level.WARN));  // queued into the last slot
+            appender.doAppend(event(Level.ERROR)); // queue full: dropped
+            assertEquals(4, appender.getNumberOfElementsInQueue());
+            assertEquals(2, appender.getDroppedCount());
+        } finally {
+            release.countDown();
+            appender.stop();
+        }
+    }
+
+    @Test
+    void testCountsNothingWhileTheQueueHasRoom() {
+        ListAppender<ILoggingEvent> written = new ListAppender<>();
+        written.setContext(context);
+        written.start();
+        CountingAsyncAppender appender = new CountingAsyncAppender();
+        appender.setContext(context);
+        appender.setNeverBlock(true);
+        appender.addAppender(written);
+        appender.start();
+
+        for (int i = 0; i < 100; i++) {
+            appender.doAppend(event(Level.INFO));
+        }
+        // Stopping drains the queue.
+        appender.stop();
+
+        assertEquals(100, written.list.size());
+        assertEquals(0, appender.getDroppedCount());
+    }
+}
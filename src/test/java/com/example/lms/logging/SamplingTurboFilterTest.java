@@ -0,0 +1,72 @@
+package com.example.lms.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SamplingTurboFilterTest {
+
+    private final LoggerContext context = new LoggerContext();
+    private final Logger controllerLogger = context.getLogger("com.example.lms.controller.BookController");
+    private final Logger serviceLogger = context.getLogger("com.example.lms.service.impl.BookServiceImpl");
+
+    private SamplingTurboFilter filter(double sampleRate) {
+        SamplingTurboFilter filter = new SamplingTurboFilter();
+        filter.setLoggerPrefix("com.example.lms.controller");
+        filter.setSampleRate(sampleRate);
+        return filter;
+    }
+
+    private FilterReply decide(SamplingTurboFilter filter, Logger logger, Level level) {
+        return filter.decide(null, logger, level, "request {}", null, null);
+    }
+
+    @Test
+    void testKeepsTheSampleRateOfInfoEvents() {
+        SamplingTurboFilter filter = filter(0.25);
+
+        int kept = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (decide(filter, controllerLogger, Level.INFO) == FilterReply.NEUTRAL) {
+                kept++;
+            }
+        }
+
+        // 2500 expected; the bounds are more than ten standard deviations away.
+        assertTrue(kept > 2000 && kept < 3000, "kept " + kept);
+    }
+
+    @Test
+    void testWarnAndErrorAlwaysPass() {
+        SamplingTurboFilter filter = filter(0);
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(FilterReply.NEUTRAL, decide(filter, controllerLogger, Level.WARN));
+            assertEquals(FilterReply.NEUTRAL, decide(filter, controllerLogger, Level.ERROR));
+            assertEquals(FilterReply.DENY, decide(filter, controllerLogger, Level.INFO));
+            assertEquals(FilterReply.DENY, decide(filter, controllerLogger, Level.DEBUG));
+        }
+    }
+
+    @Test
+    void testOtherLoggersAreNotSampled() {
+        SamplingTurboFilter filter = filter(0);
+
+        assertEquals(FilterReply.NEUTRAL, decide(filter, serviceLogger, Level.INFO));
+        // Level checks such as isDebugEnabled() call the filter without a level.
+        assertEquals(FilterReply.NEUTRAL, decide(filter, controllerLogger, null));
+    }
+
+    @Test
+    void testSampleRateOfOneKeepsEverything() {
+        SamplingTurboFilter filter = filter(1);
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(FilterReply.NEUTRAL, decide(filter, controllerLogger, Level.INFO));
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.lms.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private RateLimitFilter rateLimitFilter;
+    private MockFilterChain chain;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // Two requests per client and one borrow per borrower, refilled far slower than the test runs.
+        rateLimitFilter = new RateLimitFilter(new TokenBuckets(2, 0.01, 100), new TokenBuckets(1, 0.01, 100), meterRegistry);
+    }
+
+    @Test
+    void testRejectsClientOverItsLimit() throws Exception {
+        assertPassed(send("POST", "/api/books", "10.0.0.1"));
+        assertPassed(send("POST", "/api/borrowers", "10.0.0.1"));
+
+        MockHttpServletResponse rejected = send("POST", "/api/books/batch", "10.0.0.1");
+
+        assertNull(chain.getRequest());
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), rejected.getStatus());
+        assertEquals("100", rejected.getHeader("Retry-After"));
+        assertEquals(1, meterRegistry.get("lms.ratelimit.rejected").tag("limit", "client").counter().count());
+        assertPassed(send("POST", "/api/books", "10.0.0.2"));
+    }
+
+    @Test
+    void testRejectsBorrowerOverItsLimitFromAnyClient() throws Exception {
+        assertPassed(send("POST", "/api/borrowers/1/borrow/7", "10.0.0.1"));
+
+        MockHttpServletResponse rejected = send("POST", "/api/borrowers/1/borrow", "10.0.0.2");
+
+        assertNull(chain.getRequest());
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), rejected.getStatus());
+        assertNotNull(rejected.getHeader("Retry-After"));
+        assertEquals(1, meterRegistry.get("lms.ratelimit.rejected").tag("limit", "borrower").counter().count());
+        assertPassed(send("POST", "/api/borrowers/2/borrow/7", "10.0.0.2"));
+    }
+
+    @Test
+    void testBorrowerRejectionDoesNotChargeTheClient() throws Exception {
+        assertPassed(send("POST", "/api/borrowers/1/borrow/7", "10.0.0.1"));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), send("POST", "/api/borrowers/1/borrow/8", "10.0.0.1").getStatus());
+
+        // The rejected borrow gave its client token back, so the client still has one.
+        assertPassed(send("POST", "/api/books", "10.0.0.1"));
+        assertEquals(0, meterRegistry.get("lms.ratelimit.rejected").tag("limit", "client").counter().count());
+    }
+
+    @Test
+    void testLeavesOtherRequestsAlone() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            assertPassed(send("GET", "/api/books", "10.0.0.1"));
+            assertPassed(send("POST", "/api/borrowers/1/return/7", "10.0.0.1"));
+        }
+        assertEquals(0, meterRegistry.get("lms.ratelimit.rejected").tag("limit", "client").counter().count());
+    }
+
+    private MockHttpServletResponse send(String method, String uri, String remoteAddr) throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        request.setRemoteAddr(remoteAddr);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        chain = new MockFilterChain();
+        rateLimitFilter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private void assertPassed(MockHttpServletResponse response) {
+        assertNotNull(chain.getRequest());
+        assertEquals(HttpStatus.OK.value(), response.getStatus());
+    }
+}
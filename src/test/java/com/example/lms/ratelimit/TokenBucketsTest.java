@@ -0,0 +1,77 @@
+package com.example.lms.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketsTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void testAllowsABurstOfCapacityThenReportsTheWait() {
+        // Three tokens, one more every half second.
+        TokenBuckets buckets = new TokenBuckets(3, 2, 100);
+
+        assertEquals(0, buckets.tryTake("10.0.0.1", 0));
+        assertEquals(0, buckets.tryTake("10.0.0.1", 0));
+        assertEquals(0, buckets.tryTake("10.0.0.1", 0));
+        assertEquals(SECOND / 2, buckets.tryTake("10.0.0.1", 0));
+        assertEquals(SECOND / 4, buckets.tryTake("10.0.0.1", SECOND / 4));
+    }
+
+    @Test
+    void testRefillsOverTime() {
+        TokenBuckets buckets = new TokenBuckets(2, 2, 100);
+        buckets.tryTake("10.0.0.1", 0);
+        buckets.tryTake("10.0.0.1", 0);
+
+        assertEquals(0, buckets.tryTake("10.0.0.1", SECOND / 2));
+        assertTrue(buckets.tryTake("10.0.0.1", SECOND / 2) > 0);
+
+        // A long pause refills the bucket up to its capacity, not beyond.
+        assertEquals(0, buckets.tryTake("10.0.0.1", 10 * SECOND));
+        assertEquals(0, buckets.tryTake("10.0.0.1", 10 * SECOND));
+        assertTrue(buckets.tryTake("10.0.0.1", 10 * SECOND) > 0);
+    }
+
+    @Test
+    void testGiveBackReturnsATakenToken() {
+        TokenBuckets buckets = new TokenBuckets(2, 1, 100);
+        buckets.tryTake("10.0.0.1", 0);
+        buckets.tryTake("10.0.0.1", 0);
+
+        buckets.giveBack("10.0.0.1");
+
+        assertEquals(0, buckets.tryTake("10.0.0.1", 0));
+        assertEquals(SECOND, buckets.tryTake("10.0.0.1", 0));
+    }
+
+    @Test
+    void testGiveBackToAFullBucketKeepsItAtCapacity() {
+        TokenBuckets buckets = new TokenBuckets(1, 1, 100);
+        buckets.tryTake("10.0.0.1", 0);
+        buckets.giveBack("10.0.0.1");
+        buckets.giveBack("10.0.0.1");
+
+        assertEquals(0, buckets.tryTake("10.0.0.1", 0));
+        assertTrue(buckets.tryTake("10.0.0.1", 0) > 0);
+    }
+
+    @Test
+    void testKeysHaveTheirOwnBuckets() {
+        TokenBuckets buckets = new TokenBuckets(1, 1, 100);
+
+        assertEquals(0, buckets.tryTake("10.0.0.1", 0));
+        assertTrue(buckets.tryTake("10.0.0.1", 0) > 0);
+        assertEquals(0, buckets.tryTake("10.0.0.2", 0));
+    }
+
+    @Test
+    void testRejectsNonPositiveSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBuckets(0, 1, 100));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBuckets(1, 0, 100));
+    }
+}
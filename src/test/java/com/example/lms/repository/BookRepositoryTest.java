@@ -0,0 +1,102 @@
+package com.example.lms.repository;
+
+import com.example.lms.cache.EntityCacheEvictor;
+import com.example.lms.config.EntityCacheConfig;
+import com.example.lms.entity.Book;
+import com.example.lms.entity.Borrower;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import({EntityCacheConfig.class, SimpleMeterRegistry.class, EntityCacheEvictor.class})
+class BookRepositoryTest {
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BorrowerRepository borrowerRepository;
+
+    @Autowired
+    private EntityCacheEvictor entityCacheEvictor;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void testConditionalLoanAndReturnBumpTheVersion() {
+        Borrower borrower = entityManager.persist(new Borrower(null, "raymond.tang@example.com", "Raymond Tang"));
+        Borrower other = entityManager.persist(new Borrower(null, "crystal@example.com", "Crystal"));
+        Long bookId = entityManager.persistAndGetId(new Book(null, "978-1-60309-502-1", "The Clean Coder", "Robert C. Martin", null), Long.class);
+        entityManager.flush();
+        long version = bookRepository.findVersionById(bookId).orElseThrow();
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+
+        assertEquals(1, bookRepository.assignBorrowerIfAvailable(bookId, borrower.getId(), now, now.plus(Duration.ofDays(14))));
+        assertEquals(0, bookRepository.assignBorrowerIfAvailable(bookId, other.getId(), now, now.plus(Duration.ofDays(14))));
+        Book lent = bookRepository.findById(bookId).orElseThrow();
+        assertEquals(borrower.getId(), lent.getBorrower().getId());
+        assertEquals(now.plus(Duration.ofDays(14)), lent.getDueAt());
+        assertEquals(version + 1, lent.getVersion());
+
+        assertEquals(0, bookRepository.releaseBorrower(bookId, other.getId()));
+        assertEquals(1, bookRepository.releaseBorrower(bookId, borrower.getId()));
+        Book shelved = bookRepository.findById(bookId).orElseThrow();
+        assertNull(shelved.getBorrower());
+        assertNull(shelved.getDueAt());
+        assertEquals(version + 2, shelved.getVersion());
+    }
+
+    /**
+     * Runs outside the test transaction: a new book only reaches the second-level cache once its insert commits.
+     */
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void testConditionalLoanEvictsOnlyTheLentCopy() {
+        Borrower borrower = borrowerRepository.save(new Borrower(null, "raymond.tang@example.com", "Raymond Tang"));
+        Book lent = bookRepository.save(new Book(null, "978-1-60309-502-1", "The Clean Coder", "Robert C. Martin", null));
+        Book other = bookRepository.save(new Book(null, "978-1-60309-502-1", "The Clean Coder", "Robert C. Martin", null));
+        try {
+            assertTrue(entityManagerFactory.getCache().contains(Book.class, lent.getId()));
+
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                Instant now = Instant.now();
+                assertEquals(1, bookRepository.assignBorrowerIfAvailable(lent.getId(), borrower.getId(), now, now));
+                entityCacheEvictor.evictAfterUpdate(Book.class, lent.getId());
+            });
+
+            assertFalse(entityManagerFactory.getCache().contains(Book.class, lent.getId()));
+            assertTrue(entityManagerFactory.getCache().contains(Book.class, other.getId()));
+            assertEquals(borrower.getId(), bookRepository.findById(lent.getId()).orElseThrow().getBorrower().getId());
+        } finally {
+            bookRepository.deleteAllById(List.of(lent.getId(), other.getId()));
+            borrowerRepository.deleteById(borrower.getId());
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.lms.repository;
+
+import com.example.lms.entity.Borrower;
+import com.example.lms.entity.Hold;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+class HoldRepositoryTest {
+
+    private static final String ISBN = "978-1-60309-502-1";
+
+    @Autowired
+    private HoldRepository holdRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void testQueueIsServedInIdOrder() {
+        Borrower first = entityManager.persist(new Borrower(null, "raymond.tang@example.com", "Raymond Tang"));
+        Borrower second = entityManager.persist(new Borrower(null, "crystal@example.com", "Crystal"));
+        Hold firstHold = holdRepository.save(new Hold(null, ISBN, first, Instant.now(), null));
+        Hold secondHold = holdRepository.save(new Hold(null, ISBN, second, Instant.now(), null));
+
+        assertEquals(0, holdRepository.countByIsbnAndIdLessThan(ISBN, firstHold.getId()));
+        assertEquals(1, holdRepository.countByIsbnAndIdLessThan(ISBN, secondHold.getId()));
+
+        Hold head = holdRepository.findFirstByIsbnOrderByIdAsc(ISBN).orElseThrow();
+        assertEquals(firstHold.getId(), head.getId());
+        holdRepository.delete(head);
+        // The pending delete is flushed before the next read, so a second claim in the transaction moves on.
+        assertEquals(secondHold.getId(), holdRepository.findFirstByIsbnOrderByIdAsc(ISBN).orElseThrow().getId());
+        assertEquals(0, holdRepository.countByIsbnAndIdLessThan(ISBN, secondHold.getId()));
+    }
+
+    @Test
+    void testSecondHoldOfABorrowerViolatesTheUniqueConstraint() {
+        Borrower borrower = entityManager.persist(new Borrower(null, "raymond.tang@example.com", "Raymond Tang"));
+        holdRepository.save(new Hold(null, ISBN, borrower, Instant.now(), null));
+
+        assertThrows(DataIntegrityViolationException.class,
+                () -> holdRepository.save(new Hold(null, ISBN, borrower, Instant.now(), null)));
+    }
+}
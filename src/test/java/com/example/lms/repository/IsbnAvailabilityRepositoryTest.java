@@ -0,0 +1,104 @@
+package com.example.lms.repository;
+
+import com.example.lms.config.EntityCacheConfig;
+import com.example.lms.entity.Book;
+import com.example.lms.entity.IsbnAvailability;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import({EntityCacheConfig.class, SimpleMeterRegistry.class})
+class IsbnAvailabilityRepositoryTest {
+
+    @Autowired
+    private IsbnAvailabilityRepository isbnAvailabilityRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void testAddCopiesCreatesAndIncrementsTheRow() {
+        isbnAvailabilityRepository.addCopies("978-1-60309-502-1", 1, 1);
+        isbnAvailabilityRepository.addCopies("978-1-60309-502-1", 3, 2);
+
+        assertEquals(new IsbnAvailability("978-1-60309-502-1", 4, 3),
+                isbnAvailabilityRepository.findById("978-1-60309-502-1").orElseThrow());
+    }
+
+    /**
+     * Runs outside the test transaction: a new book only reaches the second-level cache once its insert commits.
+     */
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void testAddCopiesKeepsCachedBooks() {
+        Book book = bookRepository.save(new Book(null, "978-1-60309-502-2", "Clean Code", "Robert C. Martin", null));
+        try {
+            assertTrue(entityManagerFactory.getCache().contains(Book.class, book.getId()));
+
+            new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                    isbnAvailabilityRepository.addCopies("978-1-60309-502-2", 1, 1));
+
+            assertTrue(entityManagerFactory.getCache().contains(Book.class, book.getId()));
+        } finally {
+            bookRepository.deleteById(book.getId());
+            isbnAvailabilityRepository.deleteById("978-1-60309-502-2");
+        }
+    }
+
+    /**
+     * A hold placed while a return is in flight must see the returned copy: the locked read waits for the return's
+     * adjustment to commit instead of reading the counters from before it.
+     */
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void testLockedReadWaitsForAConcurrentAdjustment() throws Exception {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.executeWithoutResult(status -> isbnAvailabilityRepository.addCopies("978-1-60309-502-3", 1, 0));
+        CountDownLatch adjusted = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> returning = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+                isbnAvailabilityRepository.adjustAvailableForIsbn("978-1-60309-502-3", 1);
+                adjusted.countDown();
+                LockSupport.parkNanos(Duration.ofMillis(300).toNanos());
+            }));
+            adjusted.await();
+
+            long available = transactionTemplate.execute(status ->
+                    isbnAvailabilityRepository.findLockedByIsbn("978-1-60309-502-3").orElseThrow().getAvailable());
+
+            returning.get();
+            assertEquals(1, available);
+        } finally {
+            executor.shutdown();
+            isbnAvailabilityRepository.deleteById("978-1-60309-502-3");
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.lms.repository;
+
+import com.example.lms.entity.LoanEvent;
+import com.example.lms.entity.LoanEventType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+class LoanEventRepositoryTest {
+
+    private static final String ISBN = "978-1-60309-502-1";
+
+    @Autowired
+    private LoanEventRepository loanEventRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void testHistoryIsInOccurrenceOrderWhateverTheIds() {
+        Instant borrowedAt = Instant.parse("2024-05-01T10:00:00Z");
+        Instant returnedAt = Instant.parse("2024-05-02T10:00:00Z");
+        // Saved out of order, as two instances drawing on different id blocks could.
+        LoanEvent returned = loanEventRepository.save(
+                new LoanEvent(null, LoanEventType.RETURNED, 1L, 2L, ISBN, returnedAt, null));
+        LoanEvent borrowed = loanEventRepository.save(
+                new LoanEvent(null, LoanEventType.BORROWED, 1L, 2L, ISBN, borrowedAt, returnedAt));
+        entityManager.flush();
+        assertTrue(returned.getId() < borrowed.getId());
+
+        List<LoanEvent> history = loanEventRepository.findBookHistory(1L, Instant.EPOCH, 0L, Limit.of(10));
+        assertEquals(List.of(borrowed.getId(), returned.getId()), history.stream().map(LoanEvent::getId).toList());
+
+        List<LoanEvent> rest = loanEventRepository.findBorrowerHistory(2L, borrowedAt, borrowed.getId(), Limit.of(10));
+        assertEquals(List.of(returned.getId()), rest.stream().map(LoanEvent::getId).toList());
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.lms.search;
+
+import com.example.lms.dto.BookSearchHitDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogSearchIndexTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private CatalogSearchIndex catalogSearchIndex;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        catalogSearchIndex = new CatalogSearchIndex(DataSize.ofMegabytes(1), meterRegistry);
+        catalogSearchIndex.add("978-1-60309-502-1", "The Clean Coder", "Robert C. Martin");
+        catalogSearchIndex.add("978-0-13-235088-4", "Clean Code", "Robert C. Martin");
+        catalogSearchIndex.add("978-0-596-00712-6", "Head First Design Patterns", "Eric Freeman");
+    }
+
+    @Test
+    void testExactWordsRankFirst() {
+        List<BookSearchHitDTO> hits = catalogSearchIndex.search("clean coder", 10);
+
+        assertEquals("978-1-60309-502-1", hits.get(0).getIsbn());
+        assertEquals("978-0-13-235088-4", hits.get(1).getIsbn());
+        assertTrue(hits.get(0).getScore() > hits.get(1).getScore());
+        assertTrue(hits.stream().noneMatch(hit -> hit.getIsbn().equals("978-0-596-00712-6")));
+    }
+
+    @Test
+    void testToleratesTypos() {
+        List<BookSearchHitDTO> hits = catalogSearchIndex.search("desing paterns", 10);
+
+        assertEquals(1, hits.size());
+        assertEquals("Head First Design Patterns", hits.get(0).getTitle());
+    }
+
+    @Test
+    void testMatchesAuthors() {
+        List<BookSearchHitDTO> hits = catalogSearchIndex.search("Freeman", 10);
+
+        assertEquals(1, hits.size());
+        assertEquals("Eric Freeman", hits.get(0).getAuthor());
+    }
+
+    @Test
+    void testLimitKeepsBestHits() {
+        List<BookSearchHitDTO> hits = catalogSearchIndex.search("robert martin clean", 1);
+
+        assertEquals(1, hits.size());
+    }
+
+    @Test
+    void testDuplicateIsbnIsIgnored() {
+        assertFalse(catalogSearchIndex.add("978-1-60309-502-1", "The Clean Coder", "Robert C. Martin"));
+        assertEquals(3, catalogSearchIndex.documentCount());
+        assertEquals(3.0, meterRegistry.get("lms.search.index.documents").gauge().value());
+    }
+
+    @Test
+    void testStopsAddingOnceMemoryBudgetIsReached() {
+        CatalogSearchIndex small = new CatalogSearchIndex(DataSize.ofBytes(20_000), new SimpleMeterRegistry());
+
+        int added = 0;
+        for (int i = 0; i < 100; i++) {
+            if (small.add("isbn-" + i, "Title number " + i, "Author " + i)) {
+                added++;
+            }
+        }
+
+        assertTrue(added > 0 && added < 100);
+        assertEquals(added, small.documentCount());
+    }
+}
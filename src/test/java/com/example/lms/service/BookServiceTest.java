@@ -1,26 +1,64 @@
 package com.example.lms.service;
 
+import com.example.lms.cache.IsbnMetadata;
+import com.example.lms.cache.IsbnMetadataCache;
+import com.example.lms.dto.BookBatchResultDTO;
 import com.example.lms.dto.BookDTO;
+import com.example.lms.dto.BookSearchHitDTO;
+import com.example.lms.dto.CursorPage;
+import com.example.lms.dto.IsbnAvailabilityDTO;
+import com.example.lms.dto.LoanEventDTO;
+import com.example.lms.dto.SearchMatch;
 import com.example.lms.entity.Book;
 import com.example.lms.entity.Borrower;
+import com.example.lms.entity.CollectionVersion;
+import com.example.lms.entity.Hold;
+import com.example.lms.entity.IsbnAvailability;
+import com.example.lms.entity.LoanEvent;
+import com.example.lms.entity.LoanEventType;
 import com.example.lms.exception.ResourceNotFoundException;
+import com.example.lms.hold.HoldDispatcher;
+import com.example.lms.loan.LoanPolicy;
+import com.example.lms.mapper.BookMapper;
+import com.example.lms.mapper.LoanEventMapper;
 import com.example.lms.repository.BookRepository;
 import com.example.lms.repository.BorrowerRepository;
+import com.example.lms.repository.CollectionVersionRepository;
+import com.example.lms.repository.IsbnAvailabilityRepository;
+import com.example.lms.repository.LoanEventRepository;
+import com.example.lms.repository.projection.BookSummary;
+import com.example.lms.search.CatalogSearchIndex;
 import com.example.lms.service.impl.BookServiceImpl;
+import com.example.lms.stats.BorrowStats;
+import com.example.lms.util.CursorUtil;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.modelmapper.ModelMapper;
+import org.springframework.data.domain.Limit;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -30,8 +68,29 @@ class BookServiceTest {
     private BookRepository bookRepository;
     @Mock
     private BorrowerRepository borrowerRepository;
+    @Spy
+    private BookMapper bookMapper = new BookMapper();
     @Mock
-    private ModelMapper modelMapper;
+    private EntityManager entityManager;
+    @Mock
+    private IsbnMetadataCache isbnMetadataCache;
+    @Mock
+    private CatalogSearchIndex catalogSearchIndex;
+    @Mock
+    private IsbnAvailabilityRepository isbnAvailabilityRepository;
+    @Mock
+    private CollectionVersionRepository collectionVersionRepository;
+    @Mock
+    private LoanEventRepository loanEventRepository;
+    @Spy
+    private LoanEventMapper loanEventMapper = new LoanEventMapper();
+    @Mock
+    private HoldDispatcher holdDispatcher;
+    @Mock
+    private BorrowStats borrowStats;
+
+    @Spy
+    private LoanPolicy loanPolicy = new LoanPolicy(Duration.ofDays(14));
 
     @InjectMocks
     private BookServiceImpl bookService;
@@ -51,8 +110,6 @@ class BookServiceTest {
         Book book = new Book(1L, "978-1-60309-502-1", "The Clean Coder", "Robert C. Martin", null);
 
         // Mocking
-        when(modelMapper.map(bookDTO, Book.class)).thenReturn(book);
-        when(modelMapper.map(book, BookDTO.class)).thenReturn(bookDTO);
         when(bookRepository.save(any(Book.class))).thenReturn(book);
 
         // When
@@ -62,6 +119,33 @@ class BookServiceTest {
         assertEquals(bookDTO.getIsbn(), savedBook.getIsbn());
         assertEquals(bookDTO.getTitle(), savedBook.getTitle());
         assertEquals(bookDTO.getAuthor(), savedBook.getAuthor());
+        verify(isbnMetadataCache).put("978-1-60309-502-1", "The Clean Coder", "Robert C. Martin");
+        verify(catalogSearchIndex).add("978-1-60309-502-1", "The Clean Coder", "Robert C. Martin");
+        verify(isbnAvailabilityRepository).addCopies("978-1-60309-502-1", 1, 1);
+        verify(collectionVersionRepository).bump(CollectionVersion.BOOKS);
+        verify(bookRepository, never()).findByIsbn(anyString());
+        verify(loanEventRepository, never()).save(any(LoanEvent.class));
+    }
+
+    @Test
+    void testRegisterBookLendsTheCopyToTheNextHolder() {
+        // Given
+        BookDTO bookDTO = createBookDTO("978-1-60309-502-1", "The Clean Coder", "Robert C. Martin");
+        Borrower holder = new Borrower(2L, "jane.doe@example.com", "Jane Doe");
+        Hold hold = new Hold(7L, "978-1-60309-502-1", holder, Instant.now(), 0L);
+
+        // Mocking
+        when(holdDispatcher.claimNext("978-1-60309-502-1")).thenReturn(hold);
+        when(bookRepository.save(any(Book.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        BookDTO savedBook = bookService.registerBook(bookDTO);
+
+        // Then
+        assertEquals(Long.valueOf(2L), savedBook.getBorrowerId());
+        verify(isbnAvailabilityRepository).addCopies("978-1-60309-502-1", 1, 0);
+        verify(loanEventRepository).save(argThat(event -> event.getType() == LoanEventType.BORROWED && event.getBorrowerId() == 2L));
+        verify(borrowStats).recordBorrow("978-1-60309-502-1", "The Clean Coder", "Robert C. Martin");
     }
 
     @Test
@@ -69,11 +153,10 @@ class BookServiceTest {
         // Given
         BookDTO bookDTO = createBookDTO("978-1-60309-502-1", "The Clean Coder", "Robert C. Martin");
         Book existingBook = new Book(1L, "978-1-60309-502-1", "The Clean Coder", "Robert C. Martin", null);
-        List<Book> existingBooks = List.of(existingBook);
 
         // Mocking
-        when(bookRepository.findByIsbn(bookDTO.getIsbn())).thenReturn(existingBooks);
-        when(modelMapper.map(bookDTO, Book.class)).thenReturn(existingBook);
+        when(isbnMetadataCache.get(bookDTO.getIsbn())).thenReturn(Optional.of(new IsbnMetadata(existingBook.getTitle(), existingBook.getAuthor())));
+        when(bookRepository.save(any(Book.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         // Assertions
         assertDoesNotThrow(() -> bookService.registerBook(bookDTO));
@@ -84,10 +167,9 @@ class BookServiceTest {
         // Given
         BookDTO bookDTO = createBookDTO("978-1-60309-502-1", "The Clean Coder", "Robert C. Martin");
         Book existingBook = new Book(1L, "978-1-60309-502-1", "The Clean Code", "Robert C. Martin", null);
-        List<Book> existingBooks = List.of(existingBook);
 
         // Mocking
-        when(bookRepository.findByIsbn(bookDTO.getIsbn())).thenReturn(existingBooks);
+        when(isbnMetadataCache.get(bookDTO.getIsbn())).thenReturn(Optional.of(new IsbnMetadata(existingBook.getTitle(), existingBook.getAuthor())));
 
         // Assertions
         assertThrows(IllegalArgumentException.class, () -> bookService.registerBook(bookDTO));
@@ -98,10 +180,9 @@ class BookServiceTest {
         // Given
         BookDTO bookDTO = createBookDTO("978-1-60309-502-1", "The Clean Coder", "Robert C. Martin");
         Book existingBook = new Book(1L, "978-1-60309-502-1", "The Clean Coder", "Robert Martin", null);
-        List<Book> existingBooks = List.of(existingBook);
 
         // Mocking
-        when(bookRepository.findByIsbn(bookDTO.getIsbn())).thenReturn(existingBooks);
+        when(isbnMetadataCache.get(bookDTO.getIsbn())).thenReturn(Optional.of(new IsbnMetadata(existingBook.getTitle(), existingBook.getAuthor())));
 
         // Assertions
         assertThrows(IllegalArgumentException.class, () -> bookService.registerBook(bookDTO));
@@ -116,8 +197,6 @@ class BookServiceTest {
 
         // Mocking
         when(bookRepository.findAll()).thenReturn(mockBooks);
-        when(modelMapper.map(book1, BookDTO.class)).thenReturn(new BookDTO(book1.getId(), book1.getIsbn(), book1.getTitle(), book1.getAuthor(), null));
-        when(modelMapper.map(book2, BookDTO.class)).thenReturn(new BookDTO(book2.getId(), book2.getIsbn(), book2.getTitle(), book2.getAuthor(), null));
 
         // When
         List<BookDTO> books = bookService.getAllBooks();
@@ -128,6 +207,174 @@ class BookServiceTest {
         assertEquals(book2.getIsbn(), books.get(1).getIsbn());
     }
 
+    @Test
+    void testGetBooksFirstPageHasNextCursor() {
+        // Given
+        Book book1 = new Book(1L, "978-1-60309-502-1", "The Clean Coder", "Robert C. Martin", null);
+        Book book2 = new Book(2L, "978-1-60309-502-2", "Head First OOP", "Brett McLaughlin", null);
+        Book book3 = new Book(3L, "978-1-60309-502-3", "Refactoring", "Martin Fowler", null);
+
+        // Mocking
+        when(bookRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(3))).thenReturn(List.of(book1, book2, book3));
+
+        // When
+        CursorPage<BookDTO> page = bookService.getBooks(null, 2);
+
+        // Then
+        assertEquals(2, page.getItems().size());
+        assertEquals(2L, CursorUtil.decode(page.getNextCursor()));
+    }
+
+    @Test
+    void testGetBooksLastPageHasNoNextCursor() {
+        // Given
+        Book book3 = new Book(3L, "978-1-60309-502-3", "Refactoring", "Martin Fowler", null);
+
+        // Mocking
+        when(bookRepository.findByIdGreaterThanOrderByIdAsc(2L, Limit.of(3))).thenReturn(List.of(book3));
+
+        // When
+        CursorPage<BookDTO> page = bookService.getBooks(CursorUtil.encode(2L), 2);
+
+        // Then
+        assertEquals(1, page.getItems().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void testGetBooksWithInvalidCursor() {
+        assertThrows(IllegalArgumentException.class, () -> bookService.getBooks("not-a-cursor", 2));
+    }
+
+    @Test
+    void testExportBooks() {
+        // Given
+        Book book1 = new Book(1L, "978-1-60309-502-1", "The Clean Coder", "Robert C. Martin", null);
+        Book book2 = new Book(2L, "978-1-60309-502-2", "Head First OOP", "Brett McLaughlin", null);
+        List<BookDTO> exported = new ArrayList<>();
+
+        // Mocking
+        when(bookRepository.streamAllBy()).thenReturn(Stream.of(book1, book2));
+
+        // When
+        bookService.exportBooks(exported::add);
+
+        // Then
+        assertEquals(2, exported.size());
+        assertEquals(book1.getIsbn(), exported.get(0).getIsbn());
+        assertEquals(book2.getIsbn(), exported.get(1).getIsbn());
+    }
+
+    @Test
+    void testRegisterBooksReportsPerItemResults() {
+        // Given
+        BookDTO valid = createBookDTO("978-1-60309-502-1", "The Clean Coder", "Robert C. Martin");
+        BookDTO wrongTitle = createBookDTO("978-1-60309-502-1", "The Clean Code", "Robert C. Martin");
+        BookDTO unknownBorrower = createBookDTO("978-1-60309-502-2", "Head First OOP", "Brett McLaughlin");
+        unknownBorrower.setBorrowerId(999L);
+        Book book = new Book(null, "978-1-60309-502-1", "The Clean Coder", "Robert C. Martin", null);
+        Book savedBook = new Book(1L, "978-1-60309-502-1", "The Clean Coder", "Robert C. Martin", null);
+
+        // Mocking
+        when(borrowerRepository.findAllById(List.of(999L))).thenReturn(List.of());
+        when(isbnMetadataCache.get("978-1-60309-502-1")).thenReturn(Optional.empty());
+        when(isbnMetadataCache.get("978-1-60309-502-2")).thenReturn(Optional.empty());
+        when(bookRepository.saveAll(List.of(book))).thenReturn(List.of(savedBook));
+
+        // When
+        List<BookBatchResultDTO> results = bookService.registerBooks(List.of(valid, wrongTitle, unknownBorrower));
+
+        // Then
+        assertEquals(3, results.size());
+        assertTrue(results.get(0).isSuccess());
+        assertEquals(1L, results.get(0).getBook().getId());
+        assertFalse(results.get(1).isSuccess());
+        assertEquals("Books with the same ISBN must have the same title and author", results.get(1).getError());
+        assertFalse(results.get(2).isSuccess());
+        assertEquals("Borrower not found", results.get(2).getError());
+        verify(isbnAvailabilityRepository).addCopies("978-1-60309-502-1", 1L, 1L);
+        verify(isbnAvailabilityRepository, never()).addCopies(eq("978-1-60309-502-2"), anyLong(), anyLong());
+    }
+
+    @Test
+    void testSearchBooksByTitlePrefixEscapesWildcards() {
+        // Given
+        BookSummary summary = mock(BookSummary.class);
+
+        // Mocking
+        when(bookRepository.searchByTitle("100!% Pure!_Java%", "", 0L, "%", Limit.of(21))).thenReturn(List.of(summary));
+
+        // When
+        CursorPage<BookSummary> page = bookService.searchBooks(null, "100% Pure_Java", null, SearchMatch.PREFIX, null, 20);
+
+        // Then
+        assertEquals(List.of(summary), page.getItems());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void testSearchBooksByIsbnAndAuthorContains() {
+        // Mocking
+        when(bookRepository.searchByIsbn("978-1-60309-502-1", 0L, "%", "%Martin%", Limit.of(11))).thenReturn(List.of());
+
+        // When
+        CursorPage<BookSummary> page = bookService.searchBooks("978-1-60309-502-1", null, "Martin", SearchMatch.CONTAINS, null, 10);
+
+        // Then
+        assertTrue(page.getItems().isEmpty());
+    }
+
+    @Test
+    void testSearchBooksByTitlePrefixResumesAfterTheLastTitle() {
+        // Given
+        BookSummary first = mock(BookSummary.class);
+        BookSummary second = mock(BookSummary.class);
+        when(first.getTitle()).thenReturn("Clean Code");
+        when(first.getId()).thenReturn(7L);
+
+        // Mocking
+        when(bookRepository.searchByTitle("Clean%", "", 0L, "Robert%", Limit.of(2))).thenReturn(List.of(first, second));
+        when(bookRepository.searchByTitle("Clean%", "Clean Code", 7L, "Robert%", Limit.of(2))).thenReturn(List.of(second));
+
+        // When
+        CursorPage<BookSummary> page = bookService.searchBooks(null, "Clean", "Robert", SearchMatch.PREFIX, null, 1);
+        CursorPage<BookSummary> next = bookService.searchBooks(null, "Clean", "Robert", SearchMatch.PREFIX, page.getNextCursor(), 1);
+
+        // Then
+        assertEquals(List.of(first), page.getItems());
+        assertEquals(CursorUtil.encode("Clean Code", 7L), page.getNextCursor());
+        assertEquals(List.of(second), next.getItems());
+        assertNull(next.getNextCursor());
+    }
+
+    @Test
+    void testSearchBooksByAuthorPrefix() {
+        // Mocking
+        when(bookRepository.searchByAuthor("Martin%", "", 0L, "%", Limit.of(21))).thenReturn(List.of());
+
+        // When
+        CursorPage<BookSummary> page = bookService.searchBooks(null, null, "Martin", SearchMatch.PREFIX, null, 20);
+
+        // Then
+        assertTrue(page.getItems().isEmpty());
+    }
+
+    @Test
+    void testSearchBooksContainingWalksTheIds() {
+        // Mocking
+        when(bookRepository.searchContaining(5L, "%Code%", "%", Limit.of(21))).thenReturn(List.of());
+
+        // When
+        CursorPage<BookSummary> page = bookService.searchBooks(null, "Code", null, SearchMatch.CONTAINS, CursorUtil.encode(5L), 20);
+
+        // Then
+        assertTrue(page.getItems().isEmpty());
+    }
+
+    @Test
+    void testSearchBooksWithoutCriteria() {
+        assertThrows(IllegalArgumentException.class, () -> bookService.searchBooks(null, " ", null, SearchMatch.PREFIX, null, 20));
+    }
 
     @Test
     void testRegisterBookWithValidBorrowerId() {
@@ -137,10 +384,8 @@ class BookServiceTest {
         Borrower borrower = new Borrower(1L, "raymond.tang@example.com", "Raymond Tang");
 
         // Mocking
-        when(modelMapper.map(bookDTO, Book.class)).thenReturn(new Book());
-        when(modelMapper.map(new Book(), BookDTO.class)).thenReturn(bookDTO);
         when(borrowerRepository.findById(1L)).thenReturn(Optional.of(borrower));
-        when(bookRepository.save(any(Book.class))).thenReturn(new Book());
+        when(bookRepository.save(any(Book.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         // When
         BookDTO savedBook = bookService.registerBook(bookDTO);
@@ -148,6 +393,7 @@ class BookServiceTest {
         // Assertions
         assertNotNull(savedBook);
         assertEquals(bookDTO.getBorrowerId(), savedBook.getBorrowerId());
+        verify(loanEventRepository).save(argThat(event -> event.getType() == LoanEventType.BORROWED && event.getBorrowerId() == 1L));
     }
 
     @Test
@@ -157,7 +403,6 @@ class BookServiceTest {
         bookDTO.setBorrowerId(999L);
 
         // Mocking
-        when(modelMapper.map(bookDTO, Book.class)).thenReturn(new Book());
         when(borrowerRepository.findById(999L)).thenReturn(Optional.empty());
 
         // Assertions
@@ -171,8 +416,6 @@ class BookServiceTest {
         bookDTO.setBorrowerId(null);
 
         // Mocking
-        when(modelMapper.map(bookDTO, Book.class)).thenReturn(new Book());
-        when(modelMapper.map(new Book(), BookDTO.class)).thenReturn(bookDTO);
         when(bookRepository.save(any(Book.class))).thenReturn(new Book());
 
         // When
@@ -190,8 +433,6 @@ class BookServiceTest {
         bookDTO.setBorrowerId(0L);
 
         // Mocking
-        when(modelMapper.map(bookDTO, Book.class)).thenReturn(new Book());
-        when(modelMapper.map(new Book(), BookDTO.class)).thenReturn(bookDTO);
         when(bookRepository.save(any(Book.class))).thenReturn(new Book());
 
         // When
@@ -199,7 +440,89 @@ class BookServiceTest {
 
         // Then
         assertNotNull(savedBook);
-        assertEquals(0L, savedBook.getBorrowerId());
+        assertNull(savedBook.getBorrowerId());
     }
 
+
+    @Test
+    void testSearchCatalog() {
+        // Given
+        List<BookSearchHitDTO> hits = List.of(new BookSearchHitDTO("978-1-60309-502-1", "The Clean Coder", "Robert C. Martin", 2.0f));
+
+        // Mocking
+        when(catalogSearchIndex.search("clean coder", CursorUtil.MAX_PAGE_SIZE)).thenReturn(hits);
+
+        // When
+        List<BookSearchHitDTO> result = bookService.searchCatalog("clean coder", 500);
+
+        // Then
+        assertEquals(hits, result);
+    }
+
+    @Test
+    void testSearchCatalogWithBlankQuery() {
+        assertThrows(IllegalArgumentException.class, () -> bookService.searchCatalog(" ", 20));
+        verify(catalogSearchIndex, never()).search(anyString(), anyInt());
+    }
+
+    @Test
+    void testGetAvailability() {
+        when(isbnAvailabilityRepository.findById("978-1-60309-502-1"))
+                .thenReturn(Optional.of(new IsbnAvailability("978-1-60309-502-1", 3, 1)));
+
+        IsbnAvailabilityDTO availability = bookService.getAvailability("978-1-60309-502-1");
+
+        assertEquals(new IsbnAvailabilityDTO("978-1-60309-502-1", 3, 1), availability);
+    }
+
+    @Test
+    void testGetAvailabilityOfUnknownIsbn() {
+        when(isbnAvailabilityRepository.findById("978-1-60309-502-9")).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> bookService.getAvailability("978-1-60309-502-9"));
+    }
+
+    @Test
+    void testGetHistory() {
+        // Given
+        LoanEvent borrowed = new LoanEvent(4L, LoanEventType.BORROWED, 1L, 2L, "978-1-60309-502-1",
+                Instant.parse("2024-05-01T10:00:00Z"), Instant.parse("2024-05-15T10:00:00Z"));
+
+        // Mocking
+        when(bookRepository.existsById(1L)).thenReturn(true);
+        when(loanEventRepository.findBookHistory(1L, Instant.parse("2024-04-30T10:00:00Z"), 3L, Limit.of(21)))
+                .thenReturn(List.of(borrowed));
+
+        // When
+        CursorPage<LoanEventDTO> history = bookService.getHistory(1L, CursorUtil.encode("2024-04-30T10:00:00Z", 3L), 20);
+
+        // Then
+        assertEquals(1, history.getItems().size());
+        assertEquals(2L, history.getItems().get(0).getBorrowerId());
+        assertEquals(Instant.parse("2024-05-15T10:00:00Z"), history.getItems().get(0).getDueAt());
+        assertNull(history.getNextCursor());
+    }
+
+    @Test
+    void testGetHistoryOfUnknownBook() {
+        when(bookRepository.existsById(9L)).thenReturn(false);
+
+        assertThrows(ResourceNotFoundException.class, () -> bookService.getHistory(9L, null, 20));
+        verify(loanEventRepository, never()).findBookHistory(anyLong(), any(Instant.class), anyLong(), any(Limit.class));
+    }
+
+    @Test
+    void testGetBookVersion() {
+        when(bookRepository.findVersionById(1L)).thenReturn(Optional.of(5L));
+
+        assertEquals(5L, bookService.getBookVersion(1L));
+        verify(bookRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void testGetBookVersionOfUnknownBook() {
+        when(bookRepository.findVersionById(9L)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> bookService.getBookVersion(9L));
+    }
 }
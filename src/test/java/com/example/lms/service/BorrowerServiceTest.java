@@ -1,25 +1,54 @@
 package com.example.lms.service;
 
+import com.example.lms.cache.EntityCacheEvictor;
 import com.example.lms.dto.BorrowerDTO;
+import com.example.lms.dto.BorrowerLoansDTO;
+import com.example.lms.dto.CursorPage;
+import com.example.lms.dto.LoanBatchMode;
+import com.example.lms.dto.LoanBatchRequestDTO;
+import com.example.lms.dto.LoanBatchResultDTO;
+import com.example.lms.dto.LoanEventDTO;
 import com.example.lms.entity.Book;
 import com.example.lms.entity.Borrower;
+import com.example.lms.entity.CollectionVersion;
+import com.example.lms.entity.Hold;
+import com.example.lms.entity.LoanEvent;
+import com.example.lms.entity.LoanEventType;
+import com.example.lms.exception.BookAlreadyBorrowedException;
+import com.example.lms.exception.BookNotBorrowedException;
+import com.example.lms.exception.LoanBatchRejectedException;
 import com.example.lms.exception.ResourceNotFoundException;
+import com.example.lms.hold.HoldDispatcher;
+import com.example.lms.loan.LoanPolicy;
+import com.example.lms.mapper.BorrowerMapper;
+import com.example.lms.mapper.LoanEventMapper;
 import com.example.lms.repository.BookRepository;
 import com.example.lms.repository.BorrowerRepository;
+import com.example.lms.repository.CollectionVersionRepository;
+import com.example.lms.repository.IsbnAvailabilityRepository;
+import com.example.lms.repository.LoanEventRepository;
+import com.example.lms.repository.projection.BookSummary;
 import com.example.lms.service.impl.BorrowerServiceImpl;
+import com.example.lms.stats.BorrowStats;
+import com.example.lms.util.CursorUtil;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.modelmapper.ModelMapper;
+import org.springframework.data.domain.Limit;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 
@@ -30,8 +59,25 @@ class BorrowerServiceTest {
     private BorrowerRepository borrowerRepository;
     @Mock
     private BookRepository bookRepository;
+    @Spy
+    private BorrowerMapper borrowerMapper = new BorrowerMapper();
     @Mock
-    private ModelMapper modelMapper;
+    private IsbnAvailabilityRepository isbnAvailabilityRepository;
+    @Mock
+    private CollectionVersionRepository collectionVersionRepository;
+    @Mock
+    private HoldDispatcher holdDispatcher;
+    @Mock
+    private LoanEventRepository loanEventRepository;
+    @Spy
+    private LoanEventMapper loanEventMapper = new LoanEventMapper();
+    @Mock
+    private BorrowStats borrowStats;
+    @Mock
+    private EntityCacheEvictor entityCacheEvictor;
+
+    @Spy
+    private LoanPolicy loanPolicy = new LoanPolicy(Duration.ofDays(14));
 
     @InjectMocks
     private BorrowerServiceImpl borrowerService;
@@ -42,9 +88,7 @@ class BorrowerServiceTest {
         BorrowerDTO borrowerDTO = new BorrowerDTO(null, "raymond.tang@example.com", "Raymond Tang");
         Borrower savedBorrower = new Borrower(1L, "raymond.tang@example.com", "Raymond Tang");
 
-        when(modelMapper.map(borrowerDTO, Borrower.class)).thenReturn(new Borrower());
         when(borrowerRepository.save(any(Borrower.class))).thenReturn(savedBorrower);
-        when(modelMapper.map(savedBorrower, BorrowerDTO.class)).thenReturn(borrowerDTO);
 
         BorrowerDTO result = borrowerService.registerBorrower(borrowerDTO);
 
@@ -52,6 +96,7 @@ class BorrowerServiceTest {
         assertNotNull(result);
         assertEquals("raymond.tang@example.com", result.getEmail());
         assertEquals("Raymond Tang", result.getName());
+        verify(collectionVersionRepository).bump(CollectionVersion.BORROWERS);
     }
 
     @Test
@@ -60,65 +105,125 @@ class BorrowerServiceTest {
         Borrower borrower = new Borrower(1L, "raymond.tang@example.com", "Raymond Tang");
         Book book = new Book(1L, "978-1-60309-502-1", "The Clean Coder", "Robert C. Martin", null);
 
-        when(borrowerRepository.findById(1L)).thenReturn(Optional.of(borrower));
         when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
-        when(bookRepository.save(any(Book.class))).thenReturn(book);
+        when(bookRepository.assignBorrowerIfAvailable(eq(1L), eq(1L), any(Instant.class), any(Instant.class))).thenReturn(1);
 
         // When
         assertDoesNotThrow(() -> borrowerService.borrowBook(1L, 1L));
 
         // Assertions
-        assertNotNull(book.getBorrower());
-        assertEquals(borrower, book.getBorrower());
+        verify(bookRepository).assignBorrowerIfAvailable(eq(1L), eq(1L), any(Instant.class),
+                argThat(dueAt -> dueAt.isAfter(Instant.now().plus(Duration.ofDays(13)))));
+        verify(entityCacheEvictor).evictAfterUpdate(Book.class, 1L);
+        verify(loanEventRepository).save(argThat(event -> event.getType() == LoanEventType.BORROWED
+                && event.getBookId() == 1L && event.getBorrowerId() == 1L
+                && Duration.between(event.getOccurredAt(), event.getDueAt()).equals(Duration.ofDays(14))));
+        verify(borrowerRepository, never()).findById(anyLong());
+        verify(isbnAvailabilityRepository).adjustAvailableForIsbn("978-1-60309-502-1", -1);
+        verify(collectionVersionRepository).bump(CollectionVersion.BOOKS);
+        verify(borrowStats).recordBorrow("978-1-60309-502-1", "The Clean Coder", "Robert C. Martin");
     }
 
     @Test
     void testBorrowBookAlreadyBorrowed() {
         // Given
         Borrower borrower = new Borrower(1L, "raymond.tang@example.com", "Raymond Tang");
-        Book book = new Book(1L, "978-1-60309-502-1", "The Clean Coder", "Robert C. Martin", null);
-        book.setBorrower(borrower);
+        Borrower other = new Borrower(2L, "crystal@example.com", "Crystal");
+        Book book = new Book(1L, "978-1-60309-502-1", "The Clean Coder", "Robert C. Martin", other);
 
-        when(borrowerRepository.findById(1L)).thenReturn(Optional.of(borrower));
         when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+        when(bookRepository.assignBorrowerIfAvailable(eq(1L), eq(1L), any(Instant.class), any(Instant.class))).thenReturn(0);
+        when(borrowerRepository.existsById(1L)).thenReturn(true);
 
         // Assertions
-        RuntimeException exception = assertThrows(RuntimeException.class, () -> borrowerService.borrowBook(1L, 1L));
+        RuntimeException exception = assertThrows(BookAlreadyBorrowedException.class, () -> borrowerService.borrowBook(1L, 1L));
         assertEquals("Book is already borrowed", exception.getMessage());
+        verify(isbnAvailabilityRepository, never()).adjustAvailableForIsbn(anyString(), anyLong());
+        verify(collectionVersionRepository, never()).bump(anyString());
+        verify(loanEventRepository, never()).save(any(LoanEvent.class));
+        verifyNoInteractions(borrowStats, entityCacheEvictor);
     }
 
     @Test
     void testReturnBook() {
         // Given
         Borrower borrower = new Borrower(1L, "raymond.tang@example.com", "Raymond Tang");
-        Book book = new Book(1L, "978-1-60309-502-1", "The Clean Coder", "Robert C. Martin", null);
-        book.setBorrower(borrower);
+        Book book = new Book(1L, "978-1-60309-502-1", "The Clean Coder", "Robert C. Martin", borrower);
 
-        when(borrowerRepository.findById(1L)).thenReturn(Optional.of(borrower));
         when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
-        when(bookRepository.save(any(Book.class))).thenReturn(book);
+        when(bookRepository.releaseBorrower(1L, 1L)).thenReturn(1);
+        when(holdDispatcher.claimNext("978-1-60309-502-1")).thenReturn(null);
 
         // When
         assertDoesNotThrow(() -> borrowerService.returnBook(1L, 1L));
 
         // Then
-        assertNull(book.getBorrower());
+        verify(loanEventRepository).save(argThat(event -> event.getType() == LoanEventType.RETURNED
+                && event.getBookId() == 1L && event.getBorrowerId() == 1L));
+        verify(bookRepository, never()).assignBorrowerIfAvailable(anyLong(), any(), any(), any());
+        verify(borrowerRepository, never()).existsById(anyLong());
+        verify(isbnAvailabilityRepository).adjustAvailableForIsbn("978-1-60309-502-1", 1);
+        verify(collectionVersionRepository).bump(CollectionVersion.BOOKS);
+        verify(entityCacheEvictor).evictAfterUpdate(Book.class, 1L);
     }
 
     @Test
-    void testReturnBookNotBorrowed() {
+    void testReturnBookLendsTheCopyToTheNextHolder() {
+        // Given
+        Borrower borrower = new Borrower(1L, "raymond.tang@example.com", "Raymond Tang");
+        Borrower holder = new Borrower(2L, "jane.doe@example.com", "Jane Doe");
+        Book book = new Book(1L, "978-1-60309-502-1", "The Clean Coder", "Robert C. Martin", borrower);
+        Hold hold = new Hold(7L, "978-1-60309-502-1", holder, Instant.now(), 0L);
+
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+        when(bookRepository.releaseBorrower(1L, 1L)).thenReturn(1);
+        when(holdDispatcher.claimNext("978-1-60309-502-1")).thenReturn(hold);
+        when(bookRepository.assignBorrowerIfAvailable(eq(1L), eq(2L), any(Instant.class), any(Instant.class))).thenReturn(1);
+
+        // When
+        borrowerService.returnBook(1L, 1L);
+
+        // Then
+        verify(bookRepository).assignBorrowerIfAvailable(eq(1L), eq(2L), any(Instant.class), any(Instant.class));
+        verify(loanEventRepository).save(argThat(event -> event.getType() == LoanEventType.RETURNED && event.getBorrowerId() == 1L));
+        verify(loanEventRepository).save(argThat(event -> event.getType() == LoanEventType.BORROWED && event.getBorrowerId() == 2L));
+        verify(isbnAvailabilityRepository, never()).adjustAvailableForIsbn(anyString(), anyLong());
+        verify(collectionVersionRepository).bump(CollectionVersion.BOOKS);
+    }
+
+    @Test
+    void testReturnBookFailsWhenTheHandOverMisses() {
         // Given
         Borrower borrower = new Borrower(1L, "raymond.tang@example.com", "Raymond Tang");
-        Borrower anotherBorrower = new Borrower(2L, "crystal@example.com", "Crystal");
+        Borrower holder = new Borrower(2L, "jane.doe@example.com", "Jane Doe");
+        Book book = new Book(1L, "978-1-60309-502-1", "The Clean Coder", "Robert C. Martin", borrower);
+        Hold hold = new Hold(7L, "978-1-60309-502-1", holder, Instant.now(), 0L);
+
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+        when(bookRepository.releaseBorrower(1L, 1L)).thenReturn(1);
+        when(holdDispatcher.claimNext("978-1-60309-502-1")).thenReturn(hold);
+        when(bookRepository.assignBorrowerIfAvailable(eq(1L), eq(2L), any(Instant.class), any(Instant.class))).thenReturn(0);
+
+        // When, Then: the exception rolls back the return together with the deleted hold
+        assertThrows(IllegalStateException.class, () -> borrowerService.returnBook(1L, 1L));
+        verify(loanEventRepository, never()).save(argThat(event -> event.getType() == LoanEventType.BORROWED));
+        verify(collectionVersionRepository, never()).bump(anyString());
+    }
+
+    @Test
+    void testReturnBookNotBorrowed() {
+        // Given
         Book book = new Book(1L, "978-1-60309-502-1", "The Clean Coder", "Robert C. Martin", null);
-        book.setBorrower(anotherBorrower);
 
-        when(borrowerRepository.findById(1L)).thenReturn(Optional.of(borrower));
         when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+        when(bookRepository.releaseBorrower(1L, 1L)).thenReturn(0);
+        when(borrowerRepository.existsById(1L)).thenReturn(true);
 
         // When, Then
-        RuntimeException exception = assertThrows(RuntimeException.class, () -> borrowerService.returnBook(1L, 1L));
+        RuntimeException exception = assertThrows(BookNotBorrowedException.class, () -> borrowerService.returnBook(1L, 1L));
         assertEquals("Book was not borrowed by this borrower", exception.getMessage());
+        verify(loanEventRepository, never()).save(any(LoanEvent.class));
+        verifyNoInteractions(holdDispatcher);
     }
 
     @Test
@@ -129,8 +234,6 @@ class BorrowerServiceTest {
         List<Borrower> borrowers = Arrays.asList(borrower1, borrower2);
 
         when(borrowerRepository.findAll()).thenReturn(borrowers);
-        when(modelMapper.map(borrower1, BorrowerDTO.class)).thenReturn(new BorrowerDTO(1L, "raymond.tang@example.com", "Raymond Tang"));
-        when(modelMapper.map(borrower2, BorrowerDTO.class)).thenReturn(new BorrowerDTO(2L, "crystal@example.com", "Crystal"));
 
         List<BorrowerDTO> result = borrowerService.getAllBorrowers();
 
@@ -140,13 +243,164 @@ class BorrowerServiceTest {
         assertEquals("Crystal", result.get(1).getName());
     }
 
+    @Test
+    void testGetBorrowersPage() {
+        // Given
+        Borrower borrower1 = new Borrower(1L, "raymond.tang@example.com", "Raymond Tang");
+        Borrower borrower2 = new Borrower(2L, "crystal@example.com", "Crystal");
+
+        when(borrowerRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(2))).thenReturn(List.of(borrower1, borrower2));
+
+        CursorPage<BorrowerDTO> result = borrowerService.getBorrowers(null, 1);
+
+        // Assertions
+        assertEquals(1, result.getItems().size());
+        assertEquals("raymond.tang@example.com", result.getItems().get(0).getEmail());
+        assertNotNull(result.getNextCursor());
+    }
+
+    @Test
+    void testGetLoans() {
+        // Given
+        BookSummary book1 = mock(BookSummary.class);
+        BookSummary book2 = mock(BookSummary.class);
+        when(book1.getId()).thenReturn(3L);
+
+        when(borrowerRepository.existsById(1L)).thenReturn(true);
+        when(bookRepository.findLoans(1L, 0L, Limit.of(2))).thenReturn(List.of(book1, book2));
+        when(bookRepository.countByBorrowerId(1L)).thenReturn(5L);
+
+        BorrowerLoansDTO result = borrowerService.getLoans(1L, null, 1);
+
+        // Assertions
+        assertEquals(1L, result.getBorrowerId());
+        assertEquals(5L, result.getLoanCount());
+        assertEquals(List.of(book1), result.getBooks());
+        assertEquals(3L, CursorUtil.decode(result.getNextCursor()));
+    }
+
+    @Test
+    void testGetHistory() {
+        // Given
+        Instant returnedAt = Instant.parse("2024-05-02T10:00:00Z");
+        LoanEvent borrowed = new LoanEvent(4L, LoanEventType.BORROWED, 1L, 1L, "978-1-60309-502-1",
+                Instant.parse("2024-05-01T10:00:00Z"), Instant.parse("2024-05-15T10:00:00Z"));
+        LoanEvent returned = new LoanEvent(9L, LoanEventType.RETURNED, 1L, 1L, "978-1-60309-502-1", returnedAt, null);
+
+        when(borrowerRepository.existsById(1L)).thenReturn(true);
+        when(loanEventRepository.findBorrowerHistory(1L, Instant.EPOCH, 0L, Limit.of(2)))
+                .thenReturn(List.of(borrowed, returned));
+
+        CursorPage<LoanEventDTO> result = borrowerService.getHistory(1L, null, 1);
+
+        // Assertions
+        assertEquals(1, result.getItems().size());
+        assertEquals(LoanEventType.BORROWED, result.getItems().get(0).getType());
+        assertEquals(new CursorUtil.TimedCursor(Instant.parse("2024-05-01T10:00:00Z"), 4L),
+                CursorUtil.decodeTimed(result.getNextCursor()));
+    }
+
+    @Test
+    void testGetHistory_BorrowerNotFound() {
+        when(borrowerRepository.existsById(1L)).thenReturn(false);
+
+        assertThrows(ResourceNotFoundException.class, () -> borrowerService.getHistory(1L, null, 20));
+        verifyNoInteractions(loanEventRepository);
+    }
+
+    @Test
+    void testGetLoans_BorrowerNotFound() {
+        when(borrowerRepository.existsById(1L)).thenReturn(false);
+
+        assertThrows(ResourceNotFoundException.class, () -> borrowerService.getLoans(1L, null, 20));
+        verify(bookRepository, never()).findLoans(anyLong(), anyLong(), any(Limit.class));
+    }
+
+    @Test
+    void testBorrowBooksPerItem() {
+        // Given
+        Borrower borrower = new Borrower(1L, "raymond.tang@example.com", "Raymond Tang");
+        Borrower other = new Borrower(2L, "crystal@example.com", "Crystal");
+        Book available = new Book(10L, "978-1-60309-502-1", "The Clean Coder", "Robert C. Martin", null);
+        Book taken = new Book(11L, "978-1-60309-502-1", "The Clean Coder", "Robert C. Martin", other);
+
+        when(borrowerRepository.findById(1L)).thenReturn(Optional.of(borrower));
+        when(bookRepository.findAllCurrentById(List.of(10L, 11L, 12L))).thenReturn(List.of(available, taken));
+
+        // When
+        List<LoanBatchResultDTO> results = borrowerService.borrowBooks(1L,
+                new LoanBatchRequestDTO(List.of(10L, 11L, 12L), LoanBatchMode.PER_ITEM));
+
+        // Then
+        assertTrue(results.get(0).isSuccess());
+        assertEquals("Book is already borrowed", results.get(1).getError());
+        assertEquals("Book not found with id: 12", results.get(2).getError());
+        assertEquals(borrower, available.getBorrower());
+        assertEquals(other, taken.getBorrower());
+        verify(bookRepository).flush();
+        verify(isbnAvailabilityRepository).adjustAvailableForIsbn("978-1-60309-502-1", -1L);
+        verify(borrowerRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void testBorrowBooksAllOrNothingRejectsWholeBatch() {
+        // Given
+        Borrower borrower = new Borrower(1L, "raymond.tang@example.com", "Raymond Tang");
+        Book available = new Book(10L, "978-1-60309-502-1", "The Clean Coder", "Robert C. Martin", null);
+
+        when(borrowerRepository.findById(1L)).thenReturn(Optional.of(borrower));
+        when(bookRepository.findAllCurrentById(List.of(10L, 12L))).thenReturn(List.of(available));
+
+        // When
+        LoanBatchRejectedException exception = assertThrows(LoanBatchRejectedException.class,
+                () -> borrowerService.borrowBooks(1L, new LoanBatchRequestDTO(List.of(10L, 12L), LoanBatchMode.ALL_OR_NOTHING)));
+
+        // Then
+        assertTrue(exception.getResults().stream().noneMatch(LoanBatchResultDTO::isSuccess));
+        assertNull(available.getBorrower());
+        verify(bookRepository, never()).flush();
+        verify(isbnAvailabilityRepository, never()).adjustAvailableForIsbn(anyString(), anyLong());
+    }
+
+    @Test
+    void testReturnBooks() {
+        // Given
+        Borrower borrower = new Borrower(1L, "raymond.tang@example.com", "Raymond Tang");
+        Book first = new Book(10L, "978-1-60309-502-1", "The Clean Coder", "Robert C. Martin", borrower);
+        Book second = new Book(11L, "978-1-60309-502-2", "Head First OOP", "Brett McLaughlin", borrower);
+
+        when(borrowerRepository.findById(1L)).thenReturn(Optional.of(borrower));
+        when(bookRepository.findAllCurrentById(List.of(10L, 11L))).thenReturn(List.of(first, second));
+        when(holdDispatcher.claimNext(anyString())).thenReturn(null);
+
+        // When
+        List<LoanBatchResultDTO> results = borrowerService.returnBooks(1L, new LoanBatchRequestDTO(List.of(10L, 11L), LoanBatchMode.ALL_OR_NOTHING));
+
+        // Then
+        assertTrue(results.stream().allMatch(LoanBatchResultDTO::isSuccess));
+        assertNull(first.getBorrower());
+        assertNull(second.getBorrower());
+        verify(bookRepository).flush();
+        verify(isbnAvailabilityRepository).adjustAvailableForIsbn("978-1-60309-502-1", 1L);
+        verify(isbnAvailabilityRepository).adjustAvailableForIsbn("978-1-60309-502-2", 1L);
+    }
+
+    @Test
+    void testBorrowBooksRejectsEmptyBatch() {
+        assertThrows(IllegalArgumentException.class,
+                () -> borrowerService.borrowBooks(1L, new LoanBatchRequestDTO(List.of(), LoanBatchMode.PER_ITEM)));
+    }
+
     @Test
     void testBorrowBook_BorrowerNotFound() {
         // Given
         Long borrowerId = 1L;
         Long bookId = 1L;
+        Book book = new Book(bookId, "978-1-60309-502-1", "The Clean Coder", "Robert C. Martin", null);
 
-        when(borrowerRepository.findById(borrowerId)).thenReturn(Optional.empty());
+        when(bookRepository.findById(bookId)).thenReturn(Optional.of(book));
+        when(bookRepository.assignBorrowerIfAvailable(eq(bookId), eq(borrowerId), any(Instant.class), any(Instant.class))).thenReturn(0);
+        when(borrowerRepository.existsById(borrowerId)).thenReturn(false);
 
         // When
         ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class,
@@ -154,8 +408,7 @@ class BorrowerServiceTest {
 
         // Then
         assertEquals("Borrower not found with id: " + borrowerId, exception.getMessage());
-        verify(bookRepository, never()).findById(anyLong());
-        verify(bookRepository, never()).save(any(Book.class));
+        verify(loanEventRepository, never()).save(any(LoanEvent.class));
     }
 
     @Test
@@ -163,10 +416,9 @@ class BorrowerServiceTest {
         // Given
         Long borrowerId = 1L;
         Long bookId = 1L;
-        Borrower borrower = new Borrower(borrowerId, "raymond.tang@example.com", "Raymond Tang");
 
-        when(borrowerRepository.findById(borrowerId)).thenReturn(Optional.of(borrower));
         when(bookRepository.findById(bookId)).thenReturn(Optional.empty());
+        when(borrowerRepository.existsById(borrowerId)).thenReturn(true);
 
         // When
         ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class,
@@ -174,8 +426,7 @@ class BorrowerServiceTest {
 
         // Then
         assertEquals("Book not found with id: " + bookId, exception.getMessage());
-        verify(bookRepository, times(1)).findById(bookId);
-        verify(bookRepository, never()).save(any(Book.class));
+        verify(bookRepository, never()).assignBorrowerIfAvailable(anyLong(), any(), any(), any());
     }
 
-}
\ No newline at end of file
+}
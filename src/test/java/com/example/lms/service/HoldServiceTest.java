@@ -0,0 +1,242 @@
+package com.example.lms.service;
+
+import com.example.lms.dto.HoldDTO;
+import com.example.lms.dto.HoldStatus;
+import com.example.lms.entity.Book;
+import com.example.lms.entity.Borrower;
+import com.example.lms.entity.CollectionVersion;
+import com.example.lms.entity.Hold;
+import com.example.lms.entity.IsbnAvailability;
+import com.example.lms.entity.LoanEvent;
+import com.example.lms.entity.LoanEventType;
+import com.example.lms.exception.DuplicateHoldException;
+import com.example.lms.exception.ResourceNotFoundException;
+import com.example.lms.loan.LoanPolicy;
+import com.example.lms.repository.BookRepository;
+import com.example.lms.repository.BorrowerRepository;
+import com.example.lms.repository.CollectionVersionRepository;
+import com.example.lms.repository.HoldRepository;
+import com.example.lms.repository.IsbnAvailabilityRepository;
+import com.example.lms.repository.LoanEventRepository;
+import com.example.lms.service.impl.HoldServiceImpl;
+import com.example.lms.stats.BorrowStats;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HoldServiceTest {
+
+    private static final String ISBN = "978-1-60309-502-1";
+
+    @Mock
+    private HoldRepository holdRepository;
+    @Mock
+    private BorrowerRepository borrowerRepository;
+    @Mock
+    private BookRepository bookRepository;
+    @Mock
+    private IsbnAvailabilityRepository isbnAvailabilityRepository;
+    @Mock
+    private CollectionVersionRepository collectionVersionRepository;
+    @Mock
+    private LoanEventRepository loanEventRepository;
+    @Mock
+    private BorrowStats borrowStats;
+
+    @Spy
+    private LoanPolicy loanPolicy = new LoanPolicy(Duration.ofDays(14));
+
+    @InjectMocks
+    private HoldServiceImpl holdService;
+
+    @Test
+    void testPlaceHoldQueuesWhenNoCopyIsAvailable() {
+        // Given
+        Borrower borrower = new Borrower(1L, "raymond.tang@example.com", "Raymond Tang");
+
+        // Mocking
+        when(borrowerRepository.findById(1L)).thenReturn(Optional.of(borrower));
+        when(isbnAvailabilityRepository.findLockedByIsbn(ISBN)).thenReturn(Optional.of(new IsbnAvailability(ISBN, 2, 0)));
+        when(holdRepository.save(any(Hold.class))).thenAnswer(invocation -> {
+            Hold hold = invocation.getArgument(0);
+            hold.setId(7L);
+            return hold;
+        });
+        when(holdRepository.countByIsbnAndIdLessThan(ISBN, 7L)).thenReturn(2L);
+
+        // When
+        HoldDTO result = holdService.placeHold(1L, ISBN);
+
+        // Then
+        assertEquals(HoldStatus.WAITING, result.getStatus());
+        assertEquals(7L, result.getId());
+        assertEquals(3, result.getPosition());
+        verify(bookRepository, never()).findAvailableCopies(any(), any());
+        verify(loanEventRepository, never()).save(any(LoanEvent.class));
+    }
+
+    @Test
+    void testPlaceHoldLendsAnAvailableCopy() {
+        // Given
+        Borrower borrower = new Borrower(1L, "raymond.tang@example.com", "Raymond Tang");
+        Book copy = new Book(10L, ISBN, "The Clean Coder", "Robert C. Martin", null);
+
+        // Mocking
+        when(borrowerRepository.findById(1L)).thenReturn(Optional.of(borrower));
+        when(isbnAvailabilityRepository.findLockedByIsbn(ISBN)).thenReturn(Optional.of(new IsbnAvailability(ISBN, 2, 1)));
+        when(bookRepository.findAvailableCopies(ISBN, Limit.of(1))).thenReturn(List.of(copy));
+
+        // When
+        HoldDTO result = holdService.placeHold(1L, ISBN);
+
+        // Then
+        assertEquals(HoldStatus.FULFILLED, result.getStatus());
+        assertEquals(10L, result.getBookId());
+        assertEquals(borrower, copy.getBorrower());
+        verify(loanEventRepository).save(argThat(event -> event.getType() == LoanEventType.BORROWED && event.getBookId() == 10L));
+        verify(bookRepository).flush();
+        verify(isbnAvailabilityRepository).adjustAvailableForIsbn(ISBN, -1);
+        verify(collectionVersionRepository).bump(CollectionVersion.BOOKS);
+        verify(holdRepository, never()).save(any());
+        verify(borrowStats).recordBorrow(ISBN, "The Clean Coder", "Robert C. Martin");
+    }
+
+    @Test
+    void testPlaceHoldTwice() {
+        // Mocking
+        when(borrowerRepository.findById(1L)).thenReturn(Optional.of(new Borrower(1L, "raymond.tang@example.com", "Raymond Tang")));
+        when(isbnAvailabilityRepository.findLockedByIsbn(ISBN)).thenReturn(Optional.of(new IsbnAvailability(ISBN, 1, 0)));
+        when(holdRepository.existsByIsbnAndBorrowerId(ISBN, 1L)).thenReturn(true);
+
+        // When, Then
+        assertThrows(DuplicateHoldException.class, () -> holdService.placeHold(1L, ISBN));
+        verify(holdRepository, never()).save(any());
+    }
+
+    @Test
+    void testPlaceHoldQueuesBehindWaitingHoldsEvenWithACopyOnTheShelf() {
+        // Given
+        Borrower borrower = new Borrower(1L, "raymond.tang@example.com", "Raymond Tang");
+
+        // Mocking
+        when(borrowerRepository.findById(1L)).thenReturn(Optional.of(borrower));
+        when(isbnAvailabilityRepository.findLockedByIsbn(ISBN)).thenReturn(Optional.of(new IsbnAvailability(ISBN, 2, 1)));
+        when(holdRepository.existsByIsbn(ISBN)).thenReturn(true);
+        when(holdRepository.save(any(Hold.class))).thenAnswer(invocation -> {
+            Hold hold = invocation.getArgument(0);
+            hold.setId(7L);
+            return hold;
+        });
+        when(holdRepository.countByIsbnAndIdLessThan(ISBN, 7L)).thenReturn(1L);
+
+        // When
+        HoldDTO result = holdService.placeHold(1L, ISBN);
+
+        // Then
+        assertEquals(HoldStatus.WAITING, result.getStatus());
+        assertEquals(2, result.getPosition());
+        verify(bookRepository, never()).findAvailableCopies(any(), any());
+    }
+
+    @Test
+    void testPlaceHoldTwiceConcurrently() {
+        // Mocking: both requests passed the duplicate check, the other one inserted first
+        when(borrowerRepository.findById(1L)).thenReturn(Optional.of(new Borrower(1L, "raymond.tang@example.com", "Raymond Tang")));
+        when(isbnAvailabilityRepository.findLockedByIsbn(ISBN)).thenReturn(Optional.of(new IsbnAvailability(ISBN, 1, 0)));
+        when(holdRepository.save(any(Hold.class))).thenThrow(new DataIntegrityViolationException("uk_book_hold_isbn_borrower"));
+
+        // When, Then
+        assertThrows(DuplicateHoldException.class, () -> holdService.placeHold(1L, ISBN));
+    }
+
+    @Test
+    void testPlaceHoldLendsACopyReturnedWhileWaitingForTheLock() {
+        // Given
+        Borrower borrower = new Borrower(1L, "raymond.tang@example.com", "Raymond Tang");
+        Book returned = new Book(10L, ISBN, "The Clean Coder", "Robert C. Martin", null);
+
+        // Mocking: a return found nobody queued and committed while this request waited for the availability row
+        when(borrowerRepository.findById(1L)).thenReturn(Optional.of(borrower));
+        when(isbnAvailabilityRepository.findLockedByIsbn(ISBN)).thenReturn(Optional.of(new IsbnAvailability(ISBN, 1, 1)));
+        when(bookRepository.findAvailableCopies(ISBN, Limit.of(1))).thenReturn(List.of(returned));
+
+        // When
+        HoldDTO result = holdService.placeHold(1L, ISBN);
+
+        // Then
+        assertEquals(HoldStatus.FULFILLED, result.getStatus());
+        assertEquals(10L, result.getBookId());
+        verify(isbnAvailabilityRepository, never()).findById(any());
+        verify(holdRepository, never()).save(any());
+    }
+
+    @Test
+    void testPlaceHoldOnUnknownIsbn() {
+        // Mocking
+        when(borrowerRepository.findById(1L)).thenReturn(Optional.of(new Borrower(1L, "raymond.tang@example.com", "Raymond Tang")));
+        when(isbnAvailabilityRepository.findLockedByIsbn(ISBN)).thenReturn(Optional.empty());
+
+        // When, Then
+        assertThrows(ResourceNotFoundException.class, () -> holdService.placeHold(1L, ISBN));
+    }
+
+    @Test
+    void testCancelHold() {
+        // Given
+        Hold hold = new Hold(7L, ISBN, new Borrower(1L, "raymond.tang@example.com", "Raymond Tang"), Instant.now(), 0L);
+
+        // Mocking
+        when(holdRepository.findById(7L)).thenReturn(Optional.of(hold));
+
+        // When
+        holdService.cancelHold(1L, 7L);
+
+        // Then
+        verify(holdRepository).delete(hold);
+    }
+
+    @Test
+    void testCancelHoldOfAnotherBorrower() {
+        // Given
+        Hold hold = new Hold(7L, ISBN, new Borrower(2L, "jane.doe@example.com", "Jane Doe"), Instant.now(), 0L);
+
+        // Mocking
+        when(holdRepository.findById(7L)).thenReturn(Optional.of(hold));
+
+        // When, Then
+        assertThrows(ResourceNotFoundException.class, () -> holdService.cancelHold(1L, 7L));
+        verify(holdRepository, never()).delete(any());
+    }
+
+    @Test
+    void testGetHoldsOfIsbnNumbersTheQueue() {
+        // Given
+        Hold first = new Hold(7L, ISBN, new Borrower(1L, "raymond.tang@example.com", "Raymond Tang"), Instant.now(), 0L);
+        Hold second = new Hold(9L, ISBN, new Borrower(2L, "jane.doe@example.com", "Jane Doe"), Instant.now(), 0L);
+
+        // Mocking
+        when(holdRepository.findByIsbnOrderByIdAsc(ISBN)).thenReturn(List.of(first, second));
+
+        // When
+        List<HoldDTO> queue = holdService.getHoldsOfIsbn(ISBN);
+
+        // Then
+        assertEquals(List.of(1, 2), queue.stream().map(HoldDTO::getPosition).toList());
+        assertEquals(List.of(1L, 2L), queue.stream().map(HoldDTO::getBorrowerId).toList());
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.lms.stats;
+
+import com.example.lms.dto.StatsDimension;
+import com.example.lms.dto.TopBorrowedDTO;
+import com.example.lms.dto.TopBorrowedEntryDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BorrowStatsTest {
+
+    private static final Instant START = Instant.parse("2024-05-01T10:00:00Z");
+
+    private BorrowStats borrowStats;
+
+    @BeforeEach
+    void setUp() {
+        // An hour of one-minute buckets.
+        borrowStats = new BorrowStats(Duration.ofMinutes(1), 60, 8, 4, 512, Duration.ofSeconds(1));
+        for (int i = 0; i < 3; i++) {
+            borrowStats.recordBorrow("978-1-60309-502-1", "The Clean Coder", "Robert C. Martin", START);
+        }
+        borrowStats.recordBorrow("978-0-596-00712-6", "Head First Design Patterns", "Eric Freeman", START.plusSeconds(30));
+        borrowStats.recordBorrow("978-0-13-235088-4", "Clean Code", "Robert C. Martin", START.plus(Duration.ofMinutes(5)));
+        borrowStats.recordBorrow("978-0-13-235088-4", "Clean Code", "Robert C. Martin", START.plus(Duration.ofMinutes(5)));
+    }
+
+    @Test
+    void testRanksIsbnsMostBorrowedFirst() {
+        TopBorrowedDTO top = borrowStats.top(StatsDimension.ISBN, Duration.ofHours(1), 10, START.plus(Duration.ofMinutes(6)));
+
+        assertEquals(StatsDimension.ISBN, top.getBy());
+        assertEquals(Duration.ofHours(1), top.getWindow());
+        assertEquals(6, top.getBorrows());
+        assertEquals(List.of(
+                new TopBorrowedEntryDTO("978-1-60309-502-1", "The Clean Coder", 3),
+                new TopBorrowedEntryDTO("978-0-13-235088-4", "Clean Code", 2),
+                new TopBorrowedEntryDTO("978-0-596-00712-6", "Head First Design Patterns", 1)), top.getItems());
+    }
+
+    @Test
+    void testRanksAuthorsOverAllTheirTitles() {
+        TopBorrowedDTO top = borrowStats.top(StatsDimension.AUTHOR, Duration.ofHours(1), 1, START.plus(Duration.ofMinutes(6)));
+
+        assertEquals(List.of(new TopBorrowedEntryDTO("Robert C. Martin", null, 5)), top.getItems());
+    }
+
+    @Test
+    void testShortWindowOnlyCoversRecentBuckets() {
+        TopBorrowedDTO top = borrowStats.top(StatsDimension.ISBN, Duration.ofSeconds(90), 10, START.plus(Duration.ofMinutes(6)));
+
+        assertEquals(Duration.ofMinutes(2), top.getWindow());
+        assertEquals(2, top.getBorrows());
+        assertEquals(List.of(new TopBorrowedEntryDTO("978-0-13-235088-4", "Clean Code", 2)), top.getItems());
+    }
+
+    @Test
+    void testOldBucketsSlideOutAndAreReused() {
+        Instant anHourLater = START.plus(Duration.ofHours(1));
+        borrowStats.recordBorrow("978-0-596-00712-6", "Head First Design Patterns", "Eric Freeman", anHourLater);
+
+        TopBorrowedDTO top = borrowStats.top(StatsDimension.ISBN, Duration.ofHours(1), 10, anHourLater);
+
+        assertEquals(3, top.getBorrows());
+        assertEquals(List.of(
+                new TopBorrowedEntryDTO("978-0-13-235088-4", "Clean Code", 2),
+                new TopBorrowedEntryDTO("978-0-596-00712-6", "Head First Design Patterns", 1)), top.getItems());
+    }
+
+    @Test
+    void testRankingIsReusedUntilRefreshIsDue() {
+        Instant now = START.plus(Duration.ofMinutes(6));
+        TopBorrowedDTO first = borrowStats.top(StatsDimension.ISBN, Duration.ofHours(1), 10, now);
+        borrowStats.recordBorrow("978-1-60309-502-1", "The Clean Coder", "Robert C. Martin", now);
+
+        TopBorrowedDTO cached = borrowStats.top(StatsDimension.ISBN, Duration.ofHours(1), 10, now.plusMillis(500));
+        TopBorrowedDTO refreshed = borrowStats.top(StatsDimension.ISBN, Duration.ofHours(1), 10, now.plusSeconds(1));
+
+        assertEquals(first, cached);
+        assertEquals(7, refreshed.getBorrows());
+        assertEquals(now.plusSeconds(1), refreshed.getAsOf());
+    }
+
+    @Test
+    void testRejectsWindowsItCannotCover() {
+        assertThrows(IllegalArgumentException.class, () -> borrowStats.top(StatsDimension.ISBN, Duration.ofMinutes(61), 10, START));
+        assertThrows(IllegalArgumentException.class, () -> borrowStats.top(StatsDimension.ISBN, Duration.ZERO, 10, START));
+        assertThrows(IllegalArgumentException.class, () -> borrowStats.top(StatsDimension.ISBN, Duration.ofHours(1), 0, START));
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.lms.stats;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CountMinSketchTest {
+
+    @Test
+    void testEstimatesNeverUndercount() {
+        CountMinSketch sketch = new CountMinSketch(4, 64);
+        for (int i = 0; i < 1000; i++) {
+            sketch.add("isbn-" + (i % 100));
+        }
+        sketch.add("978-1-60309-502-1");
+        sketch.add("978-1-60309-502-1");
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(sketch.estimate("isbn-" + i) >= 10);
+        }
+        assertTrue(sketch.estimate("978-1-60309-502-1") >= 2);
+    }
+
+    @Test
+    void testSketchesAddUp() {
+        CountMinSketch first = new CountMinSketch(4, 512);
+        CountMinSketch second = new CountMinSketch(4, 512);
+        first.add("978-1-60309-502-1");
+        second.add("978-1-60309-502-1");
+        second.add("978-0-13-235088-4");
+
+        first.addAll(second);
+
+        assertEquals(2, first.estimate("978-1-60309-502-1"));
+        assertEquals(1, first.estimate("978-0-13-235088-4"));
+        assertEquals(1, second.estimate("978-1-60309-502-1"));
+    }
+
+    @Test
+    void testClear() {
+        CountMinSketch sketch = new CountMinSketch(4, 512);
+        sketch.add("978-1-60309-502-1");
+
+        sketch.clear();
+
+        assertEquals(0, sketch.estimate("978-1-60309-502-1"));
+    }
+
+    @Test
+    void testWidthMustBeAPowerOfTwo() {
+        assertThrows(IllegalArgumentException.class, () -> new CountMinSketch(4, 500));
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.lms.stats;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpaceSavingTest {
+
+    @Test
+    void testCountsMonitoredKeysExactly() {
+        SpaceSaving heavyHitters = new SpaceSaving(3);
+        heavyHitters.offer("978-1-60309-502-1", "The Clean Coder");
+        heavyHitters.offer("978-1-60309-502-1", "The Clean Coder");
+        heavyHitters.offer("978-0-13-235088-4", "Clean Code");
+
+        Map<String, Long> counts = countsOf(heavyHitters);
+
+        assertEquals(Map.of("978-1-60309-502-1", 2L, "978-0-13-235088-4", 1L), counts);
+    }
+
+    @Test
+    void testNewKeyReplacesTheSmallestCount() {
+        SpaceSaving heavyHitters = new SpaceSaving(2);
+        for (int i = 0; i < 5; i++) {
+            heavyHitters.offer("978-1-60309-502-1", "The Clean Coder");
+        }
+        heavyHitters.offer("978-0-13-235088-4", "Clean Code");
+        heavyHitters.offer("978-0-596-00712-6", "Head First Design Patterns");
+
+        Map<String, Long> counts = countsOf(heavyHitters);
+
+        // The newcomer inherits the evicted count, so it may be overcounted but is never undercounted.
+        assertEquals(Map.of("978-1-60309-502-1", 5L, "978-0-596-00712-6", 2L), counts);
+    }
+
+    @Test
+    void testFrequentKeySurvivesAStreamOfRareKeys() {
+        SpaceSaving heavyHitters = new SpaceSaving(4);
+        for (int i = 0; i < 100; i++) {
+            heavyHitters.offer("rare-" + i, null);
+            if (i % 2 == 0) {
+                heavyHitters.offer("978-1-60309-502-1", "The Clean Coder");
+            }
+        }
+
+        assertTrue(countsOf(heavyHitters).get("978-1-60309-502-1") >= 50);
+    }
+
+    private static Map<String, Long> countsOf(SpaceSaving heavyHitters) {
+        return heavyHitters.counters().stream()
+                .collect(Collectors.toMap(counter -> counter.key, counter -> counter.count));
+    }
+}